@@ -0,0 +1,170 @@
+package ecommerce;
+
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
+import javax.swing.border.EmptyBorder;
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class AdminPanel extends JPanel {
+    private final ECommerceApp app;
+    private final JTextField nameField = new JTextField(15);
+    private final JTextField categoryField = new JTextField(10);
+    private final JTextField priceField = new JTextField(8);
+    private final JTextField stockField = new JTextField(5);
+    private final JButton addBtn = new JButton("Add Product");
+    private final JButton backBtn = new JButton("Back");
+
+    private final ProductListModel prodModel = new ProductListModel();
+    private final JList<Product> prodList = ProductListModel.newProductList(prodModel);
+    private final JButton refreshBtn = new JButton("Refresh List");
+    private final JButton importBtn = new JButton("Import CSV/TSV...");
+    private final JButton promotionsBtn = new JButton("Reload Promotions");
+    private final JTextArea salesArea = new JTextArea(20, 28);
+
+    AdminPanel(ECommerceApp app) {
+        this.app = app;
+        setLayout(new BorderLayout(10,10));
+        setBorder(new EmptyBorder(10,10,10,10));
+
+        JPanel form = new JPanel();
+        form.add(new JLabel("Name:")); form.add(nameField);
+        form.add(new JLabel("Category:")); form.add(categoryField);
+        form.add(new JLabel("Price:")); form.add(priceField);
+        form.add(new JLabel("Stock:")); form.add(stockField);
+        form.add(addBtn);
+        form.add(backBtn);
+
+        add(form, BorderLayout.NORTH);
+
+        add(new JLabel("All Products:"), BorderLayout.CENTER);
+        add(new JScrollPane(prodList), BorderLayout.CENTER);
+
+        salesArea.setEditable(false);
+        salesArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        add(new JScrollPane(salesArea), BorderLayout.EAST);
+
+        JPanel bottom = new JPanel();
+        bottom.add(refreshBtn);
+        bottom.add(importBtn);
+        bottom.add(promotionsBtn);
+        add(bottom, BorderLayout.SOUTH);
+
+        addBtn.addActionListener(e -> doAddProduct());
+        backBtn.addActionListener(e -> app.showCard("SHOP"));
+        refreshBtn.addActionListener(e -> refreshUI());
+        importBtn.addActionListener(e -> doImport());
+        promotionsBtn.addActionListener(e -> doReloadPromotions());
+        refreshUI();
+        app.catalogEvents.subscribe(this::applyCatalogEvents);
+    }
+
+    private void applyCatalogEvents(List<CatalogEvent> events) {
+        Set<Product> stockChanged = new HashSet<>();
+        for (CatalogEvent e : events) {
+            if (e.getType() == CatalogEvent.Type.STOCK_CHANGED) stockChanged.add(e.getProduct());
+        }
+        prodModel.grownTo(app.catalog.all());
+        if (!stockChanged.isEmpty()) {
+            prodModel.rowsChanged(stockChanged, prodList.getFirstVisibleIndex(), prodList.getLastVisibleIndex());
+            refreshSales();
+        }
+    }
+
+    public void refreshUI() {
+        prodModel.setProducts(app.catalog.all());
+        refreshSales();
+    }
+
+    /** Every figure here is a constant-time read from {@link SalesAnalytics}. */
+    private void refreshSales() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Orders: %d   Units: %d%nRevenue: %s%nDiscounts: %s%n", app.sales.orders(), app.sales.unitsSold(),
+                Money.format(app.sales.revenuePaise()), Money.format(app.sales.discountPaise())));
+        appendSellers(sb, "Best sellers (this hour)", app.sales.topSellers(System.currentTimeMillis()));
+        appendSellers(sb, "Best sellers (all time)", app.sales.topSellers());
+        sb.append("\nRevenue by category\n");
+        app.sales.revenueByCategory().forEach((cat, paise) -> sb.append(String.format("  %-16s %s%n", cat, Money.format(paise))));
+        salesArea.setText(sb.toString());
+        salesArea.setCaretPosition(0);
+    }
+
+    private void appendSellers(StringBuilder sb, String title, List<SalesAnalytics.Seller> sellers) {
+        sb.append('\n').append(title).append('\n');
+        if (sellers.isEmpty()) sb.append("  (none)\n");
+        int rank = 1;
+        for (SalesAnalytics.Seller s : sellers) {
+            Product p = app.catalog.product(s.productId);
+            sb.append(String.format("  %2d. %-18s %d%n", rank++, p == null ? "#" + s.productId : p.getName(), s.units));
+        }
+    }
+
+    private void doAddProduct() {
+        String name = nameField.getText().trim();
+        String cat = categoryField.getText().trim();
+        long price;
+        int stock;
+        try {
+            price = Money.parse(priceField.getText());
+            stock = Integer.parseInt(stockField.getText().trim());
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(app.frame, "Invalid price or stock.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        try {
+            app.service.addProduct(name, cat, price, stock);
+        } catch (ServiceException ex) {
+            JOptionPane.showMessageDialog(app.frame, ex.getMessage(), ex.getTitle(), JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JOptionPane.showMessageDialog(app.frame, "Product added.");
+    }
+
+    private void doReloadPromotions() {
+        try {
+            int rules = app.service.reloadPromotions();
+            JOptionPane.showMessageDialog(app.frame, rules + " promotion rule(s) active.");
+        } catch (ServiceException ex) {
+            JOptionPane.showMessageDialog(app.frame, ex.getMessage(), ex.getTitle(), JOptionPane.ERROR_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(app.frame, "Cannot read promotions: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void doImport() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(app.frame) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+        importBtn.setEnabled(false);
+        new SwingWorker<CatalogImporter.Result, Void>() {
+            @Override
+            protected CatalogImporter.Result doInBackground() throws Exception {
+                return app.service.importProducts(file);
+            }
+
+            @Override
+            protected void done() {
+                importBtn.setEnabled(true);
+                try {
+                    JOptionPane.showMessageDialog(app.frame, get().toString(), "Import finished", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(app.frame, "Import failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+}
@@ -0,0 +1,250 @@
+package ecommerce;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded JSON API over {@link ShopService} using the JDK HttpServer. Requests are handled on
+ * virtual threads when the runtime has them (JDK 21+), otherwise on a cached thread pool.
+ * Parameters come from the query string or a form-encoded body; the login token goes in the
+ * {@code X-Auth-Token} header.
+ *
+ * <pre>
+ * GET  /api/categories
+ * GET  /api/products?category=..  |  ?q=..&limit=..
+ * GET  /api/products?limit=..[&category=..&min=..&max=..&inStock=true&after=<productId>]
+ * GET  /api/facets?category=..[&inStock=true]  -> products per price band
+ * POST /api/register   user, password
+ * POST /api/login      user, password        -> {"token": ..}
+ * POST /api/logout
+ * GET  /api/recommendations?productId=..  |  (cart of the token's session)
+ * GET  /api/cart
+ * POST /api/cart       productId, qty
+ * POST /api/checkout                          -> {"orderId": .., "total": ..}
+ * </pre>
+ */
+class ApiServer {
+    private static final class HttpError extends RuntimeException {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final ShopService service;
+    private HttpServer server;
+
+    ApiServer(ShopService service) {
+        this.service = service;
+    }
+
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(newRequestExecutor());
+        server.createContext("/api/", this::handle);
+        server.start();
+    }
+
+    int port() { return server.getAddress().getPort(); }
+
+    void stop() { server.stop(0); }
+
+    /** Always answers and closes the exchange; anything unexpected is a 500, never a dropped connection. */
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            int status = 200;
+            String body;
+            try {
+                Map<String, String> params = params(ex);
+                body = route(ex.getRequestMethod(), ex.getRequestURI().getPath(), params, ex.getRequestHeaders().getFirst("X-Auth-Token"));
+            } catch (HttpError e) {
+                status = e.status;
+                body = error(e.status == 401 ? "Unauthorized" : "Not found", e.getMessage());
+            } catch (ServiceException e) {
+                status = 400;
+                body = error(e.getTitle(), e.getMessage().trim());
+            } catch (NumberFormatException e) {
+                status = 400;
+                body = error("Bad request", "Invalid number: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                // e.g. a malformed %-escape in the query string or form body
+                status = 400;
+                body = error("Bad request", String.valueOf(e.getMessage()));
+            } catch (RuntimeException e) {
+                System.err.println("API " + ex.getRequestMethod() + " " + ex.getRequestURI().getPath() + " failed: " + e);
+                status = 500;
+                body = error("Server error", "The request could not be completed.");
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    private String route(String method, String path, Map<String, String> p, String token) {
+        switch (method + " " + path) {
+            case "GET /api/categories":
+                return strings(service.categories());
+            case "GET /api/products":
+                if (p.containsKey("q")) return products(service.search(p.get("q"), Integer.parseInt(p.getOrDefault("limit", "50"))));
+                if (p.containsKey("limit")) {
+                    Product after = p.containsKey("after") ? service.product(Integer.parseInt(p.get("after"))) : null;
+                    long max = p.containsKey("max") ? Money.parse(p.get("max")) : Long.MAX_VALUE;
+                    return products(service.browse(p.get("category"), Money.parse(p.getOrDefault("min", "0")),
+                            max, Boolean.parseBoolean(p.get("inStock")),
+                            after, Integer.parseInt(p.get("limit"))));
+                }
+                return products(service.productsInCategory(p.getOrDefault("category", "")));
+            case "GET /api/facets": {
+                int[] counts = service.priceFacets(p.get("category"), Boolean.parseBoolean(p.get("inStock")));
+                StringBuilder sb = new StringBuilder("[");
+                for (int b = 0; b < counts.length; b++) {
+                    if (b > 0) sb.append(',');
+                    sb.append(String.format(Locale.ROOT, "{\"min\":%d,\"count\":%d}", PriceIndex.BAND_FLOORS[b] / 100, counts[b]));
+                }
+                return sb.append(']').toString();
+            }
+            case "POST /api/register":
+                service.register(p.getOrDefault("user", "").trim(), p.getOrDefault("password", ""));
+                return "{\"registered\":true}";
+            case "POST /api/login": {
+                SessionStore.Session s = service.login(p.getOrDefault("user", "").trim(), p.getOrDefault("password", ""));
+                return "{\"token\":" + quote(s.getToken()) + "}";
+            }
+            case "POST /api/logout":
+                service.logout(session(token));
+                return "{\"loggedOut\":true}";
+            case "GET /api/recommendations":
+                // for one product, or for the caller's cart
+                if (p.containsKey("productId")) return products(service.boughtWith(Integer.parseInt(p.get("productId")), 10));
+                return products(service.recommendationsFor(session(token), 10));
+            case "GET /api/cart":
+                return cart(session(token));
+            case "POST /api/cart": {
+                SessionStore.Session s = session(token);
+                service.addToCart(s, Integer.parseInt(p.getOrDefault("productId", "")), Integer.parseInt(p.getOrDefault("qty", "1")));
+                return cart(s);
+            }
+            case "POST /api/checkout": {
+                Order o = service.checkout(session(token));
+                return "{\"orderId\":" + o.getId() + ",\"discount\":" + amount(o.getDiscountPaise()) + ",\"total\":" + amount(o.getTotalPaise()) + "}";
+            }
+            default:
+                throw new HttpError(404, "No such endpoint: " + method + " " + path);
+        }
+    }
+
+    private static String error(String title, String message) {
+        return "{\"error\":" + quote(title) + ",\"message\":" + quote(message) + "}";
+    }
+
+    private SessionStore.Session session(String token) {
+        SessionStore.Session s = service.session(token);
+        if (s == null) throw new HttpError(401, "Login first.");
+        return s;
+    }
+
+    private String cart(SessionStore.Session s) {
+        List<CartItem> cart = service.cart(s);
+        StringBuilder sb = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < cart.size(); i++) {
+            CartItem ci = cart.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"product\":").append(product(ci.getProduct())).append(",\"qty\":").append(ci.getQty());
+            if (ci.getPromotion() != null) {
+                sb.append(",\"promotion\":").append(quote(ci.getPromotion().toString())).append(",\"discount\":").append(amount(ci.getDiscountPaise()));
+            }
+            sb.append('}');
+        }
+        CartTotals totals = service.cartTotals(s);
+        return sb.append("],\"subtotal\":").append(amount(totals.subtotalPaise)).append(",\"discount\":").append(amount(totals.discountPaise))
+                .append(",\"total\":").append(amount(totals.totalPaise())).append('}').toString();
+    }
+
+    /** Paise as a JSON number of rupees, without going through double. */
+    private static String amount(long paise) {
+        return String.format(Locale.ROOT, "%s%d.%02d", paise < 0 ? "-" : "", Math.abs(paise) / 100, Math.abs(paise) % 100);
+    }
+
+    private static String products(List<Product> products) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < products.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(product(products.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String product(Product p) {
+        return String.format(Locale.ROOT, "{\"id\":%d,\"name\":%s,\"category\":%s,\"price\":%s,\"stock\":%d}",
+                p.getId(), quote(p.getName()), quote(p.getCategory()), amount(p.getPricePaise()), p.getStock());
+    }
+
+    private static String strings(List<String> values) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(quote(values.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    private static Map<String, String> params(HttpExchange ex) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(ex.getRequestURI().getRawQuery(), params);
+        try (InputStream in = ex.getRequestBody()) {
+            parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> into) {
+        if (form == null || form.isEmpty()) return;
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = eq < 0 ? pair : pair.substring(0, eq);
+            String v = eq < 0 ? "" : pair.substring(eq + 1);
+            into.put(URLDecoder.decode(k, StandardCharsets.UTF_8),
+                    URLDecoder.decode(v, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ecommerce;
+
+/** Every buy + get units, get of them are free. */
+final class BuyXGetY extends Promotion {
+    private final int buy, get;
+
+    BuyXGetY(String description, int buy, int get) {
+        super(description);
+        this.buy = buy;
+        this.get = get;
+    }
+
+    @Override
+    long discount(Product p, int qty) {
+        return (long) (qty / (buy + get)) * get * p.getPricePaise();
+    }
+}
@@ -0,0 +1,93 @@
+package ecommerce;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A shopper's cart: lines keyed by product id, in the order first added, with subtotal and
+ * promotion discount kept current on every change so totals never rescan the lines. Pricing
+ * follows the {@link Promotions} passed in; when that changes every line is repriced once.
+ * Not thread-safe; callers synchronize on the cart.
+ */
+class Cart {
+    private final Map<Integer, CartItem> lines = new LinkedHashMap<>();
+    private long subtotalPaise, discountPaise;
+    private Promotions pricedWith = Promotions.NONE;
+    private boolean checkingOut;
+
+    /** Adds qty of a product, merging with its existing line; returns that line. */
+    CartItem add(Product p, int qty, Promotions promotions) {
+        reprice(promotions);
+        CartItem line = lines.get(p.getId());
+        if (line == null) {
+            line = new CartItem(p, 0);
+            lines.put(p.getId(), line);
+        }
+        line.qty += qty;
+        subtotalPaise += qty * p.getPricePaise();
+        applyBest(line);
+        return line;
+    }
+
+    /** Removes a product's line; null if it is not in the cart. */
+    CartItem remove(int productId) {
+        CartItem line = lines.remove(productId);
+        if (line != null) {
+            subtotalPaise -= line.getTotalPaise();
+            discountPaise -= line.discountPaise;
+        }
+        return line;
+    }
+
+    void clear() {
+        lines.clear();
+        subtotalPaise = discountPaise = 0;
+    }
+
+    /** Takes qty units of a product off its line, dropping the line once none are left. */
+    void take(int productId, int qty) {
+        CartItem line = lines.get(productId);
+        if (line == null) return;
+        if (line.qty <= qty) {
+            remove(productId);
+            return;
+        }
+        line.qty -= qty;
+        subtotalPaise -= qty * line.product.getPricePaise();
+        applyBest(line);
+    }
+
+    /** Marks the cart as being checked out; false if it already is. */
+    boolean beginCheckout() {
+        if (checkingOut) return false;
+        checkingOut = true;
+        return true;
+    }
+
+    void endCheckout() { checkingOut = false; }
+
+    /** Live view of the lines. */
+    Collection<CartItem> lines() { return lines.values(); }
+    int size() { return lines.size(); }
+    boolean isEmpty() { return lines.isEmpty(); }
+    long subtotalPaise() { return subtotalPaise; }
+
+    long discountPaise(Promotions promotions) {
+        reprice(promotions);
+        return discountPaise;
+    }
+
+    /** Applies the promotions to every line unless the cart is already priced with them. */
+    void reprice(Promotions promotions) {
+        if (promotions == pricedWith) return;
+        pricedWith = promotions;
+        for (CartItem line : lines.values()) applyBest(line);
+    }
+
+    private void applyBest(CartItem line) {
+        discountPaise -= line.discountPaise;
+        pricedWith.apply(line);
+        discountPaise += line.discountPaise;
+    }
+}
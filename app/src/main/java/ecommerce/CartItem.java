@@ -0,0 +1,26 @@
+package ecommerce;
+
+class CartItem {
+    final Product product;
+    int qty;
+    long discountPaise; // from the best promotion for this line; kept by Cart
+    Promotion promotion;
+
+    public CartItem(Product product, int qty) {
+        this.product = product;
+        this.qty = qty;
+    }
+
+    public Product getProduct() { return product; }
+    public int getQty() { return qty; }
+    public long getTotalPaise() { return qty * product.getPricePaise(); }
+    public long getDiscountPaise() { return discountPaise; }
+    /** The promotion behind the discount, or null. */
+    public Promotion getPromotion() { return promotion; }
+
+    @Override
+    public String toString() {
+        String s = String.format("%s x %d = %s", product.getName(), qty, Money.format(getTotalPaise()));
+        return promotion == null ? s : s + String.format("  (%s: -%s)", promotion, Money.format(discountPaise));
+    }
+}
@@ -0,0 +1,109 @@
+package ecommerce;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import javax.swing.border.EmptyBorder;
+import java.awt.BorderLayout;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+class CartPanel extends JPanel {
+    private final ECommerceApp app;
+    private final DefaultListModel<String> cartListModel = new DefaultListModel<>();
+    private final JList<String> cartList = new JList<>(cartListModel);
+    private final JButton removeBtn = new JButton("Remove Selected");
+    private final JButton checkoutBtn = new JButton("Checkout");
+    private final JButton backBtn = new JButton("Back to Shop");
+    private List<CartItem> shownLines = Collections.emptyList(); // row i of the list shows line i
+    private final JLabel alsoBoughtLabel = new JLabel(" ");
+
+    CartPanel(ECommerceApp app) {
+        this.app = app;
+        setLayout(new BorderLayout(10, 10));
+        setBorder(new EmptyBorder(10,10,10,10));
+
+        add(new JLabel("Your Cart"), BorderLayout.NORTH);
+        add(new JScrollPane(cartList), BorderLayout.CENTER);
+
+        JPanel buttons = new JPanel();
+        buttons.add(removeBtn);
+        buttons.add(checkoutBtn);
+        buttons.add(backBtn);
+        JPanel bottom = new JPanel(new BorderLayout(5, 5));
+        bottom.add(alsoBoughtLabel, BorderLayout.NORTH);
+        bottom.add(buttons, BorderLayout.SOUTH);
+        add(bottom, BorderLayout.SOUTH);
+
+        removeBtn.addActionListener(e -> removeSelected());
+        checkoutBtn.addActionListener(e -> doCheckout());
+        backBtn.addActionListener(e -> app.showCard("SHOP"));
+    }
+
+    public void refreshCart() {
+        long t = app.metrics.refreshCart.start();
+        cartListModel.clear();
+        shownLines = app.service.cart(app.session);
+        if (shownLines.isEmpty()) cartListModel.addElement("<Cart is empty>");
+        else {
+            for (CartItem ci : shownLines) {
+                cartListModel.addElement(ci.toString() + " [Product ID: " + ci.getProduct().getId() + "]");
+            }
+        }
+        CartTotals totals = app.service.cartTotals(app.session);
+        if (totals.discountPaise > 0) {
+            cartListModel.addElement("Subtotal: " + Money.format(totals.subtotalPaise));
+            cartListModel.addElement("Promotions: -" + Money.format(totals.discountPaise));
+        }
+        cartListModel.addElement("----- TOTAL: " + Money.format(totals.totalPaise()) + " -----");
+        List<Product> related = app.service.recommendationsFor(app.session, 5);
+        alsoBoughtLabel.setText(related.isEmpty() ? " " : "Customers also bought: " + ProductListModel.names(related));
+        app.metrics.refreshCart.stop(t);
+    }
+
+    private void removeSelected() {
+        CartItem ci;
+        try {
+            int row = cartList.getSelectedIndex();
+            int productId = row >= 0 && row < shownLines.size() ? shownLines.get(row).getProduct().getId() : -1;
+            ci = app.service.removeFromCart(app.session, productId);
+        } catch (ServiceException ex) {
+            JOptionPane.showMessageDialog(app.frame, ex.getMessage(), ex.getTitle(), JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        JOptionPane.showMessageDialog(app.frame, "Removed: " + ci.getProduct().getName());
+        refreshCart();
+    }
+
+    /** Queues the order and returns; the EDT hears back once it is durable. */
+    private void doCheckout() {
+        checkoutBtn.setEnabled(false);
+        try {
+            app.service.placeOrder(app.session).whenComplete((order, e) -> SwingUtilities.invokeLater(() -> checkedOut(order, e)));
+        } catch (ServiceException ex) {
+            checkoutBtn.setEnabled(true);
+            JOptionPane.showMessageDialog(app.frame, ex.getMessage(), ex.getTitle(), JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    private void checkedOut(Order order, Throwable failure) {
+        checkoutBtn.setEnabled(true);
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause instanceof ServiceException) {
+                JOptionPane.showMessageDialog(app.frame, cause.getMessage(), ((ServiceException) cause).getTitle(), JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(app.frame, "Checkout failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+            return;
+        }
+        JOptionPane.showMessageDialog(app.frame, "Order placed successfully! Paid " + Money.format(order.getTotalPaise()), "Success", JOptionPane.INFORMATION_MESSAGE);
+        app.showCard("SHOP");
+    }
+}
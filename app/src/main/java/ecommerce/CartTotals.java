@@ -0,0 +1,13 @@
+package ecommerce;
+
+/** A cart's subtotal and promotion discount, in paise. */
+final class CartTotals {
+    final long subtotalPaise, discountPaise;
+
+    CartTotals(long subtotalPaise, long discountPaise) {
+        this.subtotalPaise = subtotalPaise;
+        this.discountPaise = discountPaise;
+    }
+
+    long totalPaise() { return subtotalPaise - discountPaise; }
+}
@@ -0,0 +1,62 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * One immutable version of the catalog: products by id, in insertion order and per
+ * category, plus the price index. Writers derive the next version under the service lock
+ * and publish it with one volatile write; readers take the current version once and read
+ * it without any lock, seeing every index at the same point in time. Stock is not
+ * versioned: it stays a live CAS counter on the Product, and the price index re-files a
+ * product when a new version records its stock crossing zero.
+ */
+final class Catalog {
+    static final Catalog EMPTY = new Catalog(0, PersistentVector.empty(), PersistentVector.empty(), new TreeMap<>(), PriceIndex.EMPTY);
+
+    final long version;
+    private final PersistentVector<Product> byId, all;
+    // never modified once built; categories are few, so a new version copies this small map
+    private final SortedMap<String, PersistentVector<Product>> byCategory;
+    private final PriceIndex prices;
+
+    private Catalog(long version, PersistentVector<Product> byId, PersistentVector<Product> all,
+                    SortedMap<String, PersistentVector<Product>> byCategory, PriceIndex prices) {
+        this.version = version;
+        this.byId = byId;
+        this.all = all;
+        this.byCategory = byCategory;
+        this.prices = prices;
+    }
+
+    Product product(int id) { return byId.getOrNull(id); }
+    /** Every product in the order added. */
+    List<Product> all() { return all; }
+    int size() { return all.size(); }
+    int categoryCount() { return byCategory.size(); }
+    List<String> categories() { return new ArrayList<>(byCategory.keySet()); }
+    boolean hasCategory(String category) { return byCategory.containsKey(category); }
+    /** The category's products in the order added; empty for an unknown category. */
+    List<Product> inCategory(String category) { return byCategory.getOrDefault(category, PersistentVector.empty()); }
+    PriceIndex prices() { return prices; }
+
+    Catalog plusAll(List<Product> added) {
+        if (added.isEmpty()) return this;
+        Map<String, List<Product>> byNewCategory = new LinkedHashMap<>();
+        for (Product p : added) byNewCategory.computeIfAbsent(p.getCategory(), k -> new ArrayList<>()).add(p);
+        SortedMap<String, PersistentVector<Product>> categories = new TreeMap<>(byCategory);
+        byNewCategory.forEach((c, products) -> categories.put(c, byCategory.getOrDefault(c, PersistentVector.empty()).plusAll(products)));
+        return new Catalog(version + 1, byId.withAll(added, Product::getId), all.plusAll(added), categories, prices.plusAll(added));
+    }
+
+    /** Re-files in the price index those of the products whose stock has crossed zero. */
+    Catalog restocked(Collection<Product> changed) {
+        PriceIndex refreshed = prices.refreshed(changed);
+        return refreshed == prices ? this : new Catalog(version + 1, byId, all, byCategory, refreshed);
+    }
+}
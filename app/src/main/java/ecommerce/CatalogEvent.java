@@ -0,0 +1,23 @@
+package ecommerce;
+
+class CatalogEvent {
+    enum Type { PRODUCT_ADDED, STOCK_CHANGED, CATEGORY_CREATED }
+
+    private final Type type;
+    private final Product product; // null for CATEGORY_CREATED
+    private final String category;
+
+    private CatalogEvent(Type type, Product product, String category) {
+        this.type = type;
+        this.product = product;
+        this.category = category;
+    }
+
+    static CatalogEvent productAdded(Product p) { return new CatalogEvent(Type.PRODUCT_ADDED, p, p.getCategory()); }
+    static CatalogEvent stockChanged(Product p) { return new CatalogEvent(Type.STOCK_CHANGED, p, p.getCategory()); }
+    static CatalogEvent categoryCreated(String c) { return new CatalogEvent(Type.CATEGORY_CREATED, null, c); }
+
+    public Type getType() { return type; }
+    public Product getProduct() { return product; }
+    public String getCategory() { return category; }
+}
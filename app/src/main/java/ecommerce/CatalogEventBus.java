@@ -0,0 +1,50 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Fans catalog changes out to subscribers in batches. Events published from any thread are
+ * queued; the first event of a batch schedules one delivery on the given executor (the EDT
+ * for Swing), and everything published before that delivery runs arrives as a single list.
+ * With no subscribers, publishing is a no-op.
+ */
+class CatalogEventBus {
+    private final Executor delivery;
+    private final List<Consumer<List<CatalogEvent>>> subscribers = new CopyOnWriteArrayList<>();
+    private List<CatalogEvent> pending = new ArrayList<>();
+    private boolean scheduled;
+
+    CatalogEventBus(Executor delivery) {
+        this.delivery = delivery;
+    }
+
+    void subscribe(Consumer<List<CatalogEvent>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    void publish(CatalogEvent e) {
+        if (subscribers.isEmpty()) return;
+        synchronized (this) {
+            pending.add(e);
+            if (scheduled) return;
+            scheduled = true;
+        }
+        delivery.execute(this::drain);
+    }
+
+    private void drain() {
+        List<CatalogEvent> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+            scheduled = false;
+        }
+        batch = Collections.unmodifiableList(batch);
+        for (Consumer<List<CatalogEvent>> s : subscribers) s.accept(batch);
+    }
+}
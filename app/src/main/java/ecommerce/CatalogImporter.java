@@ -0,0 +1,214 @@
+package ecommerce;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or TSV supplier feed ({@code name,category,price,stock}, optional header row)
+ * into the catalog. One thread reads fixed-size chunks of lines, a pool parses them in parallel,
+ * and the calling thread commits parsed chunks in file order, assigning each chunk a block of
+ * ids at once. At most {@code 2 x threads} chunks are in flight, so memory stays bounded no
+ * matter how big the file is. Rows that cannot be parsed are skipped and counted; the first
+ * {@link #REPORTED_LINES} of them are reported by line number.
+ */
+class CatalogImporter {
+    static final int CHUNK_LINES = 8192;
+    /** Skipped rows reported by line number; the rest are only counted. */
+    static final int REPORTED_LINES = 20;
+
+    /** Receives parsed rows in file order; called from the importing thread only. */
+    interface Sink {
+        void accept(String[] names, String[] categories, long[] pricesPaise, int[] stocks, int count);
+    }
+
+    static class Result {
+        final long rows, skipped, millis;
+        /** 1-based line numbers of the first skipped rows, in file order. */
+        final List<Long> skippedLines;
+
+        Result(long rows, long skipped, List<Long> skippedLines, long millis) {
+            this.rows = rows;
+            this.skipped = skipped;
+            this.skippedLines = skippedLines;
+            this.millis = millis;
+        }
+
+        double rowsPerSecond() { return millis == 0 ? rows : rows * 1000.0 / millis; }
+
+        @Override
+        public String toString() {
+            String s = String.format("Imported %,d products (%,d rows skipped) in %.1f s - %,.0f rows/sec",
+                    rows, skipped, millis / 1000.0, rowsPerSecond());
+            if (skippedLines.isEmpty()) return s;
+            String lines = skippedLines.stream().map(String::valueOf).collect(Collectors.joining(", "));
+            return s + "\nSkipped line" + (skippedLines.size() > 1 ? "s " : " ") + lines + (skipped > skippedLines.size() ? ", ..." : "");
+        }
+    }
+
+    private static class Chunk {
+        final long firstLine; // file line number of the chunk's first line
+        final List<Long> skippedLines = new ArrayList<>();
+        final String[] names = new String[CHUNK_LINES], categories = new String[CHUNK_LINES];
+        final long[] prices = new long[CHUNK_LINES]; // paise
+        final int[] stocks = new int[CHUNK_LINES];
+        int count, skipped;
+
+        Chunk(long firstLine) {
+            this.firstLine = firstLine;
+        }
+
+        void skip(int index) {
+            if (skippedLines.size() < REPORTED_LINES) skippedLines.add(firstLine + index);
+            skipped++;
+        }
+    }
+
+    static Result run(Path file, Sink sink) throws IOException {
+        long start = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads);
+        BlockingQueue<Future<Chunk>> pending =
+                new ArrayBlockingQueue<>(threads * 2);
+        Future<Chunk> end = CompletableFuture.completedFuture(null);
+        AtomicReference<IOException> readError = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String first = in.readLine();
+                char delim = file.toString().endsWith(".tsv") || (first != null && first.indexOf('\t') >= 0) ? '\t' : ',';
+                List<String> lines = new ArrayList<>(CHUNK_LINES);
+                long lineNo = 1; // of the first line in lines
+                if (first != null && isHeader(first, delim)) lineNo++;
+                else if (first != null) lines.add(first);
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    lines.add(line);
+                    if (lines.size() == CHUNK_LINES) {
+                        List<String> batch = lines;
+                        long batchLine = lineNo;
+                        pending.put(parsers.submit(() -> parse(batch, batchLine, delim)));
+                        lines = new ArrayList<>(CHUNK_LINES);
+                        lineNo += CHUNK_LINES;
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    List<String> batch = lines;
+                    long batchLine = lineNo;
+                    pending.put(parsers.submit(() -> parse(batch, batchLine, delim)));
+                }
+            } catch (IOException e) {
+                readError.set(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    pending.put(end);
+                } catch (InterruptedException ignored) {}
+            }
+        }, "catalog-import-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long rows = 0, skipped = 0;
+        List<Long> skippedLines = new ArrayList<>();
+        try {
+            for (Future<Chunk> f = pending.take(); f != end; f = pending.take()) {
+                Chunk c = f.get();
+                sink.accept(c.names, c.categories, c.prices, c.stocks, c.count);
+                rows += c.count;
+                skipped += c.skipped;
+                for (long line : c.skippedLines) if (skippedLines.size() < REPORTED_LINES) skippedLines.add(line);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed", e.getCause());
+        } finally {
+            // on any failure, including one thrown by the sink, the reader may be blocked on a full queue
+            reader.interrupt();
+            parsers.shutdownNow();
+        }
+        if (readError.get() != null) throw readError.get();
+        return new Result(rows, skipped, skippedLines, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static boolean isHeader(String line, char delim) {
+        List<String> f = split(line, delim);
+        if (f.size() < 3) return false;
+        try {
+            Money.parse(f.get(2));
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static Chunk parse(List<String> lines, long firstLine, char delim) {
+        Chunk c = new Chunk(firstLine);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            List<String> f = split(line, delim);
+            if (f.size() < 4) {
+                if (!line.trim().isEmpty()) c.skip(i);
+                continue;
+            }
+            String name = f.get(0).trim(), category = f.get(1).trim();
+            try {
+                long price = Money.parse(f.get(2));
+                int stock = Integer.parseInt(f.get(3).trim());
+                if (name.isEmpty() || category.isEmpty() || price < 0 || stock < 0) {
+                    c.skip(i);
+                    continue;
+                }
+                c.names[c.count] = name;
+                c.categories[c.count] = category;
+                c.prices[c.count] = price;
+                c.stocks[c.count] = stock;
+                c.count++;
+            } catch (NumberFormatException e) {
+                c.skip(i);
+            }
+        }
+        return c;
+    }
+
+    /** Splits one line; for CSV, fields may be double-quoted with "" as an escaped quote. */
+    static List<String> split(String line, char delim) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (delim == ',' && ch == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (ch == delim && !quoted) {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(ch);
+            }
+        }
+        fields.add(cur.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,338 @@
+package ecommerce;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Durable store for catalog, user and order changes: an append-only, memory-mapped
+ * write-ahead log plus periodic snapshots. Files in the data directory are
+ * {@code snapshot-<gen>.bin} (state at the start of generation gen) and {@code wal-<gen>.log}
+ * (every change since). Opening loads the newest snapshot and replays its log into a
+ * {@link Listener}; a torn record at the tail of the log (crash mid-write) ends the replay
+ * and is overwritten by the next append.
+ *
+ * <p>Log record: {@code int length, int crc32, byte type, payload}. A zero length marks the end.
+ * Prices are long paise, in the log and in snapshots.
+ */
+class CatalogStore implements Closeable {
+    /** Receives state while the store is being loaded. */
+    interface Listener {
+        void productAdded(int id, String name, String category, long pricePaise, int stock);
+        void stockChanged(int productId, int delta);
+        void userRegistered(String user, String password);
+        void orderRecorded(Order order);
+    }
+
+    private static final byte PRODUCT_ADDED = 4, USER_REGISTERED = 2, ORDER_PLACED = 5;
+    private static final int SNAPSHOT_MAGIC = 0x45434F33; // "ECO3"
+    private static final int HEADER = 8;
+    private static final int MAP_CHUNK = 1 << 20;
+    static final long SNAPSHOT_THRESHOLD = 64L << 20; // log bytes before a snapshot is due
+
+    private final Path dir;
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private int position;
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private final CRC32 crc = new CRC32();
+
+    private CatalogStore(Path dir) {
+        this.dir = dir;
+    }
+
+    static CatalogStore open(Path dir, Listener listener) throws IOException {
+        Files.createDirectories(dir);
+        CatalogStore store = new CatalogStore(dir);
+        store.generation = store.latestSnapshotGeneration();
+        if (store.generation >= 0) store.loadSnapshot(listener);
+        else store.generation = 0;
+        store.openLog();
+        store.replay(listener);
+        return store;
+    }
+
+    // ----- appends -----
+
+    synchronized void logProductAdded(Product p) {
+        ByteBuffer b = begin(PRODUCT_ADDED);
+        b.putInt(p.getId());
+        b = putString(b, p.getName());
+        b = putString(b, p.getCategory());
+        b = ensure(b, 12);
+        b.putLong(p.getPricePaise()).putInt(p.getStock());
+        append(b);
+    }
+
+    synchronized void logUserRegistered(String user, String password) {
+        ByteBuffer b = putString(begin(USER_REGISTERED), user);
+        append(putString(b, password));
+    }
+
+    synchronized void logOrderPlaced(Order o) {
+        ByteBuffer b = begin(ORDER_PLACED);
+        b.putLong(o.getId()).putLong(o.getTimestamp());
+        b = putString(b, o.getUser());
+        b = ensure(b, 4 + o.getLines().size() * 16 + 8);
+        b.putInt(o.getLines().size());
+        for (OrderLine l : o.getLines()) b.putInt(l.getProductId()).putInt(l.getQty()).putLong(l.getUnitPricePaise());
+        b.putLong(o.getDiscountPaise());
+        append(b);
+    }
+
+    /** Forces appended records to disk. Appends alone already survive a process crash. */
+    synchronized void sync() {
+        log.force();
+    }
+
+    synchronized boolean snapshotDue() {
+        return position >= SNAPSHOT_THRESHOLD;
+    }
+
+    /**
+     * Writes the given state as the next generation's snapshot and starts an empty log.
+     * The caller must keep the state from changing until this returns. The old log is
+     * deleted only once the snapshot file and its name in the directory are on disk.
+     */
+    synchronized void snapshot(Collection<Product> products, Map<String, String> users, List<Order> orders) throws IOException {
+        long next = generation + 1;
+        Path tmp = dir.resolve("snapshot-" + next + ".tmp");
+        try (FileChannel file = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(file), 1 << 20));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(products.size());
+            for (Product p : products) {
+                out.writeInt(p.getId());
+                out.writeUTF(p.getName());
+                out.writeUTF(p.getCategory());
+                out.writeLong(p.getPricePaise());
+                out.writeInt(p.getStock());
+            }
+            out.writeInt(users.size());
+            for (Map.Entry<String, String> e : users.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeUTF(e.getValue());
+            }
+            out.writeInt(orders.size());
+            for (Order o : orders) {
+                out.writeLong(o.getId());
+                out.writeLong(o.getTimestamp());
+                out.writeUTF(o.getUser());
+                out.writeInt(o.getLines().size());
+                for (OrderLine l : o.getLines()) {
+                    out.writeInt(l.getProductId());
+                    out.writeInt(l.getQty());
+                    out.writeLong(l.getUnitPricePaise());
+                }
+                out.writeLong(o.getDiscountPaise());
+            }
+            out.flush();
+            file.force(true);
+        }
+        Files.move(tmp, dir.resolve("snapshot-" + next + ".bin"), StandardCopyOption.ATOMIC_MOVE);
+        // the snapshot now covers everything in the current log; switch to a fresh one
+        log.force();
+        channel.close();
+        long old = generation;
+        generation = next;
+        openLog();
+        syncDirectory(); // the rename and the new log's entry, before the old log goes
+        Files.deleteIfExists(dir.resolve("wal-" + old + ".log"));
+        Files.deleteIfExists(dir.resolve("snapshot-" + old + ".bin"));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) return;
+        log.force();
+        channel.close();
+    }
+
+    int position() { return position; }
+
+    /** Makes renames and new files in the data directory durable. */
+    private void syncDirectory() throws IOException {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows cannot open a directory; NTFS makes the rename durable by itself
+        }
+    }
+
+    // ----- record encoding -----
+
+    private ByteBuffer begin(byte type) {
+        scratch.clear();
+        scratch.position(HEADER);
+        return scratch.put(type);
+    }
+
+    private ByteBuffer ensure(ByteBuffer b, int more) {
+        if (b.remaining() >= more) return b;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(b.capacity() * 2, b.position() + more));
+        b.flip();
+        scratch = bigger.put(b);
+        return scratch;
+    }
+
+    private ByteBuffer putString(ByteBuffer b, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        b = ensure(b, 4 + bytes.length);
+        return b.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer b) {
+        byte[] bytes = new byte[b.getInt()];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void append(ByteBuffer b) {
+        int length = b.position() - HEADER;
+        crc.reset();
+        crc.update(b.array(), HEADER, length);
+        b.putInt(0, length).putInt(4, (int) crc.getValue());
+        int total = HEADER + length;
+        if (position + total + HEADER > log.capacity()) remap(position + total + HEADER);
+        // write the body first and the length last, so a torn write never looks complete
+        log.put(position + 4, b.array(), 4, total - 4);
+        log.putInt(position, length);
+        position += total;
+    }
+
+    // ----- loading -----
+
+    private long latestSnapshotGeneration() throws IOException {
+        long latest = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "snapshot-*.bin")) {
+            for (Path f : files) {
+                String n = f.getFileName().toString();
+                latest = Math.max(latest, Long.parseLong(n.substring("snapshot-".length(), n.length() - ".bin".length())));
+            }
+        }
+        return latest;
+    }
+
+    private void loadSnapshot(Listener listener) throws IOException {
+        Path file = dir.resolve("snapshot-" + generation + ".bin");
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 20))) {
+            int magic = in.readInt();
+            if (magic != SNAPSHOT_MAGIC) throw new IOException("Not a snapshot: " + file);
+            for (int n = in.readInt(); n > 0; n--) {
+                int id = in.readInt();
+                String name = in.readUTF(), category = in.readUTF();
+                long price = in.readLong();
+                listener.productAdded(id, name, category, price, in.readInt());
+            }
+            for (int n = in.readInt(); n > 0; n--) listener.userRegistered(in.readUTF(), in.readUTF());
+            for (int n = in.readInt(); n > 0; n--) {
+                long id = in.readLong(), ts = in.readLong();
+                String user = in.readUTF();
+                List<OrderLine> lines = new ArrayList<>();
+                for (int k = in.readInt(); k > 0; k--) {
+                    int productId = in.readInt(), qty = in.readInt();
+                    lines.add(new OrderLine(productId, qty, in.readLong()));
+                }
+                listener.orderRecorded(new Order(id, user, ts, lines, in.readLong()));
+            }
+        }
+    }
+
+    private void openLog() throws IOException {
+        channel = FileChannel.open(dir.resolve("wal-" + generation + ".log"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        position = 0;
+        log = null;
+        remap(Math.max(channel.size(), MAP_CHUNK));
+    }
+
+    private void remap(long minSize) {
+        long size = Math.max(minSize, log == null ? 0 : (long) log.capacity() * 2);
+        size = (size + MAP_CHUNK - 1) / MAP_CHUNK * MAP_CHUNK;
+        if (size > Integer.MAX_VALUE) throw new IllegalStateException("Write-ahead log exceeds 2 GB; snapshot first");
+        try {
+            log = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replay(Listener listener) {
+        while (position + HEADER <= log.capacity()) {
+            int length = log.getInt(position);
+            if (length == 0) break;
+            if (length < 0 || position + HEADER + length > log.capacity() || !checksumMatches(length)) {
+                // torn tail: clear it so later appends cannot be confused with its leftovers
+                int end = length <= 0 ? position + HEADER : (int) Math.min(log.capacity(), (long) position + HEADER + length);
+                for (int i = position; i < end; i++) log.put(i, (byte) 0);
+                break;
+            }
+            ByteBuffer rec = log.duplicate();
+            rec.position(position + HEADER).limit(position + HEADER + length);
+            dispatch(rec.slice(), listener);
+            position += HEADER + length;
+        }
+    }
+
+    private boolean checksumMatches(int length) {
+        ByteBuffer body = log.duplicate();
+        body.position(position + HEADER).limit(position + HEADER + length);
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue() == log.getInt(position + 4);
+    }
+
+    private static void dispatch(ByteBuffer rec, Listener listener) {
+        byte type = rec.get();
+        switch (type) {
+            case PRODUCT_ADDED: {
+                int id = rec.getInt();
+                String name = getString(rec), category = getString(rec);
+                long price = rec.getLong();
+                listener.productAdded(id, name, category, price, rec.getInt());
+                break;
+            }
+            case USER_REGISTERED:
+                listener.userRegistered(getString(rec), getString(rec));
+                break;
+            case ORDER_PLACED: {
+                long id = rec.getLong(), ts = rec.getLong();
+                String user = getString(rec);
+                List<OrderLine> lines = new ArrayList<>();
+                for (int n = rec.getInt(); n > 0; n--) {
+                    int productId = rec.getInt(), qty = rec.getInt();
+                    lines.add(new OrderLine(productId, qty, rec.getLong()));
+                }
+                listener.orderRecorded(new Order(id, user, ts, lines, rec.getLong()));
+                for (OrderLine l : lines) listener.stockChanged(l.getProductId(), -l.getQty());
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown log record type");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * "Frequently bought together": for every product, how often each other product was in the
+ * same order. Rows are small primitive arrays keyed through an {@link IntIntMap}; a row holds
+ * at most {@link #MAX_NEIGHBOURS} entries, and when full a new neighbour takes over the weakest
+ * slot (space-saving), so memory stays bounded however many products exist. Every
+ * {@link #DECAY_ORDERS} orders all counts halve and entries reaching zero are dropped, so
+ * recent habits win. Each row's top {@link #TOP_K} is recomputed lazily when read.
+ */
+class CoPurchaseIndex {
+    static final int MAX_NEIGHBOURS = 64;
+    static final int TOP_K = 8;
+    static final int DECAY_ORDERS = 100_000;
+    /** Larger orders only pair their first lines, so one huge order costs O(1) to absorb. */
+    static final int MAX_LINES_PER_ORDER = 50;
+    private static final int[] NONE = new int[0];
+
+    static final class Row {
+        final int productId;
+        private int[] ids = new int[4], counts = new int[4];
+        private int size;
+        private int[] top = NONE, topCounts = NONE; // neighbour ids, strongest first
+        private boolean dirty;
+
+        Row(int productId) {
+            this.productId = productId;
+        }
+
+        void increment(int id) {
+            int min = -1;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    counts[i]++;
+                    dirty = true;
+                    return;
+                }
+                if (min < 0 || counts[i] < counts[min]) min = i;
+            }
+            if (size < MAX_NEIGHBOURS) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    counts = Arrays.copyOf(counts, size * 2);
+                }
+                ids[size] = id;
+                counts[size++] = 1;
+            } else {
+                // space-saving: the newcomer inherits the evicted count as its error bound
+                ids[min] = id;
+                counts[min]++;
+            }
+            dirty = true;
+        }
+
+        void halve() {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int c = counts[i] >> 1;
+                if (c == 0) continue;
+                ids[kept] = ids[i];
+                counts[kept++] = c;
+            }
+            size = kept;
+            dirty = true;
+        }
+
+        int[] top() {
+            if (!dirty) return top;
+            int k = Math.min(TOP_K, size);
+            int[] best = new int[k], bestCounts = new int[k];
+            boolean[] taken = new boolean[size];
+            for (int n = 0; n < k; n++) {
+                int pick = -1;
+                for (int i = 0; i < size; i++) {
+                    if (!taken[i] && (pick < 0 || counts[i] > counts[pick])) pick = i;
+                }
+                taken[pick] = true;
+                best[n] = ids[pick];
+                bestCounts[n] = counts[pick];
+            }
+            top = best;
+            topCounts = bestCounts;
+            dirty = false;
+            return top;
+        }
+
+        /** Counts matching top(), valid after top() has been called. */
+        int[] topCounts() {
+            return topCounts;
+        }
+    }
+
+    private IntIntMap rowOf = new IntIntMap(1024);
+    private List<Row> rows = new ArrayList<>();
+    private long orders;
+
+    /** Adds one completed order's pairs. */
+    synchronized void record(Order o) {
+        int[] ids = productIds(o);
+        for (int id : ids) row(id);
+        for (int a : ids) {
+            Row r = rows.get(rowOf.get(a));
+            for (int b : ids) if (a != b) r.increment(b);
+        }
+        if (++orders % DECAY_ORDERS == 0) for (Row r : rows) r.halve();
+    }
+
+    /**
+     * Rebuilds from the order history in parallel. Each worker owns the rows of the products
+     * with id % workers == its index and walks the whole history in order, decaying at the
+     * same points, so the result is exactly what recording the orders one by one gives.
+     */
+    synchronized void rebuild(List<Order> history) {
+        IntIntMap newRowOf = new IntIntMap(1024);
+        List<Row> newRows = new ArrayList<>();
+        int[][] idsPerOrder = new int[history.size()][];
+        for (int n = 0; n < history.size(); n++) {
+            idsPerOrder[n] = productIds(history.get(n));
+            for (int id : idsPerOrder[n]) {
+                if (newRowOf.get(id) < 0) {
+                    newRowOf.put(id, newRows.size());
+                    newRows.add(new Row(id));
+                }
+            }
+        }
+        int workers = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), history.size() / 10_000));
+        IntStream.range(0, workers).parallel().forEach(w -> {
+            for (int n = 0; n < idsPerOrder.length; n++) {
+                int[] ids = idsPerOrder[n];
+                for (int a : ids) {
+                    if (Math.floorMod(a, workers) != w) continue;
+                    Row r = newRows.get(newRowOf.get(a));
+                    for (int b : ids) if (a != b) r.increment(b);
+                }
+                if ((n + 1) % DECAY_ORDERS == 0) {
+                    for (Row r : newRows) if (Math.floorMod(r.productId, workers) == w) r.halve();
+                }
+            }
+        });
+        rowOf = newRowOf;
+        rows = newRows;
+        orders = history.size();
+    }
+
+    /** Up to TOP_K product ids most often bought with the product, strongest first. */
+    synchronized int[] boughtWith(int productId) {
+        int r = rowOf.get(productId);
+        return r < 0 ? NONE : rows.get(r).top().clone();
+    }
+
+    /** Up to limit product ids most often bought with the given ones, excluding them. */
+    synchronized int[] boughtWithAll(int[] productIds, int limit) {
+        // at most TOP_K candidates per cart line, so linear merging beats hashing
+        int[] ids = new int[productIds.length * TOP_K], scores = new int[ids.length];
+        int size = 0;
+        for (int id : productIds) {
+            int r = rowOf.get(id);
+            if (r < 0) continue;
+            Row row = rows.get(r);
+            int[] top = row.top(), counts = row.topCounts();
+            next:
+            for (int i = 0; i < top.length; i++) {
+                for (int own : productIds) if (own == top[i]) continue next;
+                for (int j = 0; j < size; j++) {
+                    if (ids[j] == top[i]) {
+                        scores[j] += counts[i];
+                        continue next;
+                    }
+                }
+                ids[size] = top[i];
+                scores[size++] = counts[i];
+            }
+        }
+        int k = Math.min(limit, size);
+        for (int n = 0; n < k; n++) { // partial selection sort, strongest first
+            int best = n;
+            for (int j = n + 1; j < size; j++) if (scores[j] > scores[best]) best = j;
+            int id = ids[n], sc = scores[n];
+            ids[n] = ids[best];
+            scores[n] = scores[best];
+            ids[best] = id;
+            scores[best] = sc;
+        }
+        return Arrays.copyOf(ids, k);
+    }
+
+    private Row row(int id) {
+        int r = rowOf.get(id);
+        if (r < 0) {
+            r = rows.size();
+            rowOf.put(id, r);
+            rows.add(new Row(id));
+        }
+        return rows.get(r);
+    }
+
+    private static int[] productIds(Order o) {
+        List<OrderLine> lines = o.getLines();
+        int n = Math.min(lines.size(), MAX_LINES_PER_ORDER);
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) ids[i] = lines.get(i).getProductId();
+        return ids;
+    }
+}
@@ -0,0 +1,398 @@
+package ecommerce;
+
+import javax.management.JMException;
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+public class ECommerceApp {
+
+    // ---------- In-memory "DB" (Collections) ----------
+    volatile Catalog catalog = Catalog.EMPTY; // replaced only under the service lock, read without one
+    final Map<String, String> users = new ConcurrentHashMap<>(); // username -> password (plaintext for demo)
+    final List<Order> orders = new ArrayList<>();
+    SessionStore.Session session; // the Swing shopper's login, null when logged out
+    private volatile SearchIndex searchIndex; // null until built, see warmSearchIndex(); searched without a lock
+    final FutureTask<SearchIndex> searchIndexBuild = new FutureTask<>(this::buildSearchIndex);
+    private final Path dataDir = Paths.get(System.getProperty("ecommerce.data", "ecommerce-data"));
+    CatalogStore store;
+    volatile Promotions promotions = Promotions.NONE;
+    final SalesAnalytics sales = new SalesAnalytics(id -> catalog.product(id));
+    final CoPurchaseIndex coPurchases = new CoPurchaseIndex();
+    final CatalogEventBus catalogEvents = new CatalogEventBus(SwingUtilities::invokeLater);
+
+    // For generating product and order IDs
+    int nextProductId = 1001;
+    private long nextOrderId = 1;
+
+    final Metrics metrics = new Metrics(() -> catalog.size(), () -> catalog.categoryCount(), this::sessionCount);
+    final ShopService service = new ShopService(this);
+
+    // ---------- Swing UI ----------
+    // Created only when the app runs with a display; headless servers never touch Swing.
+    JFrame frame;
+    private CardLayout cardLayout;
+    private JPanel mainPanel;
+
+    // Panels: only the login card is built up front; the others on first use, see shopPanel() etc.
+    private LoginPanel loginPanel;
+    private ShopPanel shopPanel;
+    private CartPanel cartPanel;
+    private AdminPanel adminPanel;
+
+    /** Shows the login card at once and loads the store behind it. Call on the EDT. */
+    public ECommerceApp() {
+        this(true);
+    }
+
+    ECommerceApp(boolean withUI) {
+        if (!withUI) {
+            load();
+            return;
+        }
+        buildUI();
+        Thread loader = new Thread(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(frame, e.getMessage(), "Cannot start", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                });
+                return;
+            }
+            SwingUtilities.invokeLater(this::loaded);
+            warmSearchIndex();
+            SwingUtilities.invokeLater(() -> shopPanel().searchIndexReady());
+        }, "store-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Opens the store and rebuilds everything derived from it. Holds the service lock so
+     * that nothing reads the catalog half-loaded.
+     */
+    private void load() {
+        synchronized (service) {
+            openStore();
+            sales.rebuild(orders);
+            coPurchases.rebuild(orders);
+            if (catalog.size() == 0 && users.isEmpty()) seedData();
+            try {
+                promotions = Promotions.load(promotionsFile());
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Promotions not loaded: " + e.getMessage());
+            }
+        }
+    }
+
+    /** The store is loaded: build the shop while the user is still typing, then allow login. */
+    private void loaded() {
+        shopPanel();
+        loginPanel.setReady();
+        Startup.shopReady();
+    }
+
+    private long sessionCount() {
+        return service.sessions.size();
+    }
+
+    /**
+     * Publishes the metrics over JMX and, unless {@code -Decommerce.metrics.interval=0}, prints
+     * them every interval (seconds, default 60).
+     */
+    private void startMetrics() {
+        try {
+            metrics.export();
+        } catch (JMException e) {
+            System.err.println("Metrics not exported over JMX: " + e);
+        }
+        long interval = Long.getLong("ecommerce.metrics.interval", 60);
+        if (interval > 0) metrics.startDump(interval, TimeUnit.SECONDS, System.out);
+    }
+
+    private void openStore() {
+        StoreLoader loader = new StoreLoader();
+        try {
+            store = CatalogStore.open(dataDir, loader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open data store in " + dataDir.toAbsolutePath(), e);
+        }
+        // one version for the whole store: each index is built in a single pass
+        catalog = catalog.plusAll(loader.products);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                store.close();
+            } catch (IOException ignored) {}
+        }));
+    }
+
+    /** Rebuilds the in-memory state from the snapshot and log without logging again. */
+    private class StoreLoader implements CatalogStore.Listener {
+        final List<Product> products = new ArrayList<>();
+        private final Map<Integer, Product> byId = new HashMap<>();
+
+        public void productAdded(int id, String name, String category, long pricePaise, int stock) {
+            Product p = new Product(id, name, category, pricePaise, stock);
+            products.add(p);
+            byId.put(id, p);
+            nextProductId = Math.max(nextProductId, id + 1);
+        }
+
+        public void stockChanged(int productId, int delta) {
+            Product p = byId.get(productId);
+            if (p != null) p.increaseStock(delta);
+        }
+
+        public void userRegistered(String user, String password) {
+            users.put(user, password);
+        }
+
+        public void orderRecorded(Order order) {
+            orders.add(order);
+            nextOrderId = Math.max(nextOrderId, order.getId() + 1);
+        }
+    }
+
+    /** Makes the latest changes durable and compacts the log once it has grown large. */
+    void commitStore() {
+        store.sync();
+        snapshotIfDue();
+    }
+
+    void snapshotIfDue() {
+        if (!store.snapshotDue()) return;
+        try {
+            store.snapshot(catalog.all(), users, orders);
+        } catch (IOException e) {
+            // the log still holds everything; try again after the next change
+            System.err.println("Snapshot failed: " + e);
+        }
+    }
+
+    private void seedData() {
+        // sample users
+        registerUserInternal("user1", "pass1");
+        registerUserInternal("admin", "admin"); // admin password
+
+        // sample products, priced in paise
+        addProductInternal("Laptop", "Electronics", 5_500_000, 7);
+        addProductInternal("Smartphone", "Electronics", 1_500_000, 25);
+        addProductInternal("Headphones", "Electronics", 120_000, 50);
+        addProductInternal("Shirt", "Clothing", 79_900, 60);
+        addProductInternal("Jeans", "Clothing", 129_900, 40);
+        addProductInternal("Running Shoes", "Footwear", 249_900, 20);
+        addProductInternal("Washing Machine", "Home Appliances", 2_599_900, 5);
+        commitStore();
+
+        // sample promotions
+        try {
+            if (!Files.exists(promotionsFile())) {
+                Files.write(promotionsFile(), Arrays.asList(
+                        "# kind, product=<id> or category=<name>, parameters",
+                        "percent-off, category=Clothing, percent=10",
+                        "buy-get, product=1003, buy=2, get=1"), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            System.err.println("Sample promotions not written: " + e);
+        }
+    }
+
+    /** Promotion rules, editable by hand; see {@link Promotions}. */
+    Path promotionsFile() {
+        return dataDir.resolve("promotions.txt");
+    }
+
+    Product addProductInternal(String name, String category, long pricePaise, int stock) {
+        Product p = new Product(nextProductId++, name, category, pricePaise, stock);
+        addToCatalog(Collections.singletonList(p));
+        store.logProductAdded(p);
+        return p;
+    }
+
+    /** Publishes a catalog version with the products added, then updates search and the panels. Call under the service lock. */
+    void addToCatalog(List<Product> added) {
+        Catalog before = catalog;
+        catalog = before.plusAll(added);
+        SearchIndex index = searchIndex;
+        if (index != null) {
+            for (Product p : added) index.add(p);
+        }
+        Set<String> created = new HashSet<>();
+        for (Product p : added) {
+            if (!before.hasCategory(p.getCategory()) && created.add(p.getCategory())) {
+                catalogEvents.publish(CatalogEvent.categoryCreated(p.getCategory()));
+            }
+            catalogEvents.publish(CatalogEvent.productAdded(p));
+        }
+    }
+
+    /**
+     * Builds the search index unless that has already started; then returns at once, even
+     * while another thread is still building. It is the costliest index to build and many
+     * sessions never search, so startup leaves it out and warms it in the background.
+     */
+    private void warmSearchIndex() {
+        searchIndexBuild.run();
+    }
+
+    /** The search index, waiting for the one shared build (starting it if nobody has). */
+    SearchIndex searchIndex() {
+        searchIndexBuild.run();
+        try {
+            return searchIndexBuild.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Search", "Search interrupted.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search index build failed", e.getCause());
+        }
+    }
+
+    /**
+     * Reads one catalog version without any lock, then catches up under the service lock on
+     * products added meanwhile and publishes the index, so later adds go straight into it.
+     */
+    private SearchIndex buildSearchIndex() {
+        Catalog seen = catalog;
+        SearchIndex index = new SearchIndex(id -> catalog.product(id));
+        for (Product p : seen.all()) index.add(p);
+        synchronized (service) {
+            List<Product> all = catalog.all();
+            for (int i = seen.size(); i < all.size(); i++) index.add(all.get(i));
+            searchIndex = index;
+        }
+        return index;
+    }
+
+    void registerUserInternal(String user, String password) {
+        users.put(user, password);
+        store.logUserRegistered(user, password);
+    }
+
+    Order recordOrder(String user, List<CartItem> items, long discountPaise) {
+        List<OrderLine> lines = new ArrayList<>(items.size());
+        for (CartItem ci : items) lines.add(new OrderLine(ci.getProduct().getId(), ci.getQty(), ci.getProduct().getPricePaise()));
+        Order order = new Order(nextOrderId++, user, System.currentTimeMillis(), lines, discountPaise);
+        store.logOrderPlaced(order); // first, so an order that cannot be logged leaves no trace
+        orders.add(order);
+        sales.record(order);
+        coPurchases.record(order);
+        return order;
+    }
+
+    private void buildUI() {
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new TimedEventQueue(metrics));
+        // the Swing shopper sends no token, so every click and key press counts as use of the session
+        Toolkit.getDefaultToolkit().addAWTEventListener(e -> touchSession(), AWTEvent.MOUSE_EVENT_MASK | AWTEvent.KEY_EVENT_MASK);
+        frame = new JFrame("E-Commerce (Swing/AWT Demo)");
+        cardLayout = new CardLayout();
+        mainPanel = new JPanel(cardLayout);
+        loginPanel = new LoginPanel(this);
+
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setSize(1000, 600);
+        frame.setLocationRelativeTo(null);
+
+        mainPanel.add(loginPanel, "LOGIN");
+
+        frame.getContentPane().add(mainPanel);
+        cardLayout.show(mainPanel, "LOGIN");
+        frame.setVisible(true);
+        Startup.firstFrame();
+    }
+
+    /** Brings the LOGIN, SHOP, CART or ADMIN card to the front. */
+    void showCard(String card) {
+        cardLayout.show(mainPanel, card);
+    }
+
+    /**
+     * Refreshes the Swing shopper's idle timer, as an API request with its token does. Once the
+     * session has expired the shopper is logged out, after the event at hand has been handled.
+     */
+    private void touchSession() {
+        SessionStore.Session s = session;
+        if (s == null || service.sessions.get(s.getToken()) != null) return;
+        SwingUtilities.invokeLater(() -> {
+            if (session != s) return;
+            session = null;
+            showCard("LOGIN");
+            JOptionPane.showMessageDialog(frame, "You were logged out after being idle. Please log in again.",
+                    "Session expired", JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    ShopPanel shopPanel() {
+        if (shopPanel == null) {
+            shopPanel = new ShopPanel(this);
+            mainPanel.add(shopPanel, "SHOP");
+        }
+        return shopPanel;
+    }
+
+    CartPanel cartPanel() {
+        if (cartPanel == null) {
+            cartPanel = new CartPanel(this);
+            mainPanel.add(cartPanel, "CART");
+        }
+        return cartPanel;
+    }
+
+    AdminPanel adminPanel() {
+        if (adminPanel == null) {
+            adminPanel = new AdminPanel(this);
+            mainPanel.add(adminPanel, "ADMIN");
+        }
+        return adminPanel;
+    }
+
+    // ---------- Run ----------
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--bench-search".equals(args[0])) {
+            SearchBench.run(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        if (args.length > 1 && "--import".equals(args[0])) {
+            System.out.println(new ECommerceApp(false).service.importProducts(Paths.get(args[1])));
+            return;
+        }
+        if (args.length > 0 && "--bench-startup".equals(args[0])) {
+            StartupBench.run(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 5);
+            System.exit(0); // the seeding app's service threads would keep the JVM alive
+        }
+        if (args.length > 0 && "--load".equals(args[0])) {
+            LoadHarness.run(args.length > 1 ? Integer.parseInt(args[1]) : 1000,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 30,
+                    args.length > 3 ? args[3] : LoadHarness.DEFAULT_MIX,
+                    args.length > 4 ? Integer.parseInt(args[4]) : 100_000);
+            return;
+        }
+        if (args.length > 0 && "--server".equals(args[0])) {
+            ECommerceApp app = new ECommerceApp(false);
+            app.startMetrics();
+            ApiServer api = new ApiServer(app.service);
+            api.start(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            Thread warm = new Thread(app::warmSearchIndex, "search-index");
+            warm.setDaemon(true);
+            warm.start();
+            System.out.println("E-Commerce API listening on http://localhost:" + api.port() + "/api/");
+            Startup.apiReady();
+            return;
+        }
+        SwingUtilities.invokeLater(() -> new ECommerceApp().startMetrics());
+    }
+}
@@ -0,0 +1,69 @@
+package ecommerce;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency (or size) histogram that records without locking or allocating: values fall into
+ * log-linear buckets, 8 per power of two, so quantiles are accurate to within 12.5%.
+ */
+final class Histogram {
+    private static final int SUB_BITS = 3, SUB = 1 << SUB_BITS, LINEAR = 2 * SUB;
+    static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucket(long v) {
+        if (v < LINEAR) return (int) Math.max(v, 0);
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        return LINEAR + (e - SUB_BITS - 1) * SUB + (int) ((v >>> (e - SUB_BITS)) & (SUB - 1));
+    }
+
+    /** Largest value that falls into bucket b. */
+    static long upperBound(int b) {
+        if (b < LINEAR) return b;
+        int shift = (b - LINEAR) / SUB + 1;
+        return ((long) (SUB + (b - LINEAR) % SUB + 1) << shift) - 1;
+    }
+
+    void record(long v) {
+        counts.getAndIncrement(bucket(v));
+        sum.add(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) { }
+    }
+
+    long count() {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+        return n;
+    }
+
+    double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    long max() { return max.get(); }
+
+    /** Upper bound of the bucket holding the q-th quantile (0 < q <= 1); 0 when empty. */
+    long quantile(double q) {
+        long n = count();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n)), seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        sum.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,61 @@
+package ecommerce;
+
+import java.util.Arrays;
+
+/** Open-addressing int -> int map (linear probing), with no boxing and no per-entry objects. */
+class IntIntMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private int[] keys, values;
+    private int size;
+
+    IntIntMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, expected + (expected >> 1)) - 1) << 1;
+        keys = new int[cap];
+        values = new int[cap];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /** The value for key, or -1 if absent. */
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) return values[i];
+            if (k == EMPTY) return -1;
+        }
+    }
+
+    void put(int key, int value) {
+        if (key == EMPTY) throw new IllegalArgumentException("Reserved key " + key);
+        if ((size + 1) * 3 > keys.length * 2) grow(); // keep the load factor under 2/3
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    int size() { return size; }
+
+    private void grow() {
+        int[] oldKeys = keys, oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
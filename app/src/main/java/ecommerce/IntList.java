@@ -0,0 +1,26 @@
+package ecommerce;
+
+import java.util.Arrays;
+
+/**
+ * Growable int array; keeps posting lists free of boxed Integers. Append-only with a single
+ * writer: a value is stored before the size that covers it is published, and a grown array is
+ * a copy, so readers on other threads see a consistent prefix without locking.
+ */
+class IntList {
+    private volatile int[] a = new int[4];
+    private volatile int size;
+
+    void add(int v) {
+        int[] cur = a;
+        if (size == cur.length) a = cur = Arrays.copyOf(cur, size * 2);
+        cur[size] = v;
+        size = size + 1;
+    }
+
+    int get(int i) { return a[i]; }
+    int size() { return size; }
+
+    /** The backing array; read {@link #size} first, then scan this up to it. */
+    int[] elements() { return a; }
+}
@@ -0,0 +1,41 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * All-or-nothing stock reservation for a whole cart. Each product's stock is a CAS counter,
+ * so no lock is held; if any line cannot be reserved the lines already taken are released.
+ * Lines are reserved in product-id order so competing carts fail fast in the same place.
+ */
+class InventoryEngine {
+    private static final Comparator<CartItem> BY_PRODUCT_ID =
+            Comparator.comparingInt(ci -> ci.getProduct().getId());
+
+    /** Returns an empty list on success, otherwise the lines that could not be fully reserved. */
+    static List<CartItem> reserveAll(Collection<CartItem> items) {
+        CartItem[] lines = items.toArray(new CartItem[0]);
+        Arrays.sort(lines, BY_PRODUCT_ID);
+        for (int i = 0; i < lines.length; i++) {
+            if (!lines[i].getProduct().tryReserve(lines[i].getQty())) {
+                for (int j = 0; j < i; j++) lines[j].getProduct().increaseStock(lines[j].getQty());
+                List<CartItem> shortfalls = new ArrayList<>();
+                for (CartItem ci : lines) {
+                    if (ci.getQty() > ci.getProduct().getStock()) shortfalls.add(ci);
+                }
+                if (shortfalls.isEmpty()) shortfalls.add(lines[i]); // lost a race that has since been undone
+                return shortfalls;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /** Gives back the stock of lines reserved by {@link #reserveAll}. */
+    static void releaseAll(Collection<CartItem> items) {
+        for (CartItem ci : items) ci.getProduct().increaseStock(ci.getQty());
+    }
+}
@@ -0,0 +1,220 @@
+package ecommerce;
+
+import java.io.BufferedWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Headless load generator for capacity planning and regression checks. N simulated shoppers
+ * drive ShopService against a generated catalog in a throwaway data directory, each
+ * registering once and then picking every next action from a weighted mix. Shoppers run on
+ * virtual threads when the JDK has them (21+), otherwise on platform threads. After a
+ * warm-up, reports per-action throughput and latency percentiles, the share of checkouts
+ * that lost a stock race, and heap growth. A checkout drawn while the cart is empty is skipped
+ * and counted on its own; checkout latency covers committed orders only.
+ * Run with: java -jar ecommerce-app.jar --load [shoppers] [seconds] [mix] [catalogSize]
+ * where mix is like {@value #DEFAULT_MIX}.
+ */
+class LoadHarness {
+    enum Action { REGISTER, LOGIN, BROWSE, ADD, CHECKOUT }
+
+    static final String DEFAULT_MIX = "login=5,browse=60,add=25,checkout=10";
+    private static final int CATEGORIES = 20;
+    private static final int MAX_STOCK = 100;
+    private static final String PASSWORD = "load";
+
+    private final ShopService service;
+    private final int firstId, catalogSize;
+    private final Action[] mix = new Action[100]; // one slot per percent
+    private final Histogram[] latency = new Histogram[Action.values().length];
+    private final LongAdder[] errors = new LongAdder[Action.values().length];
+    private final LongAdder stockConflicts = new LongAdder();
+    private final LongAdder soldOutAdds = new LongAdder();
+    private final LongAdder emptyCartCheckouts = new LongAdder();
+    private volatile boolean running = true;
+
+    private LoadHarness(ShopService service, int firstId, int catalogSize, String mix) {
+        this.service = service;
+        this.firstId = firstId;
+        this.catalogSize = catalogSize;
+        for (int i = 0; i < latency.length; i++) {
+            latency[i] = new Histogram();
+            errors[i] = new LongAdder();
+        }
+        int filled = 0;
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            Action a = Action.valueOf(kv[0].trim().toUpperCase(Locale.ROOT));
+            if (a == Action.REGISTER) throw new IllegalArgumentException("register happens once per shopper; leave it out of the mix");
+            for (int w = Integer.parseInt(kv[1].trim()); w > 0; w--) {
+                if (filled == this.mix.length) throw new IllegalArgumentException("mix weights must add up to 100: " + mix);
+                this.mix[filled++] = a;
+            }
+        }
+        if (filled != this.mix.length) throw new IllegalArgumentException("mix weights must add up to 100: " + mix);
+    }
+
+    static void run(int shoppers, int seconds, String mix, int catalogSize) throws Exception {
+        Path dir = Files.createTempDirectory("ecommerce-load");
+        System.setProperty("ecommerce.data", dir.toString());
+        ECommerceApp app = new ECommerceApp(false);
+        int firstId = app.nextProductId;
+        Path feed = dir.resolve("feed.csv");
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        try (BufferedWriter w = Files.newBufferedWriter(feed)) {
+            for (int i = 0; i < catalogSize; i++) {
+                w.write("Load product " + i + ",Load " + (i % CATEGORIES) + "," + (100 + rnd.nextInt(20000)) + ".00," + rnd.nextInt(MAX_STOCK + 1) + "\n");
+            }
+        }
+        app.service.importProducts(feed);
+        LoadHarness harness = new LoadHarness(app.service, firstId, catalogSize, mix);
+        try {
+            harness.drive(shoppers, seconds);
+        } finally {
+            app.store.close();
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private void drive(int shoppers, int seconds) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed(), heapPeak = heapBefore;
+
+        ExecutorService executor = ApiServer.newRequestExecutor();
+        boolean virtual = !(executor instanceof ThreadPoolExecutor);
+        System.out.printf("load: %d shoppers on %s threads, %d s, mix %s, catalog %d products%n",
+                shoppers, virtual ? "virtual" : "platform", seconds, String.join(",", describeMix()), catalogSize);
+        for (int i = 0; i < shoppers; i++) {
+            int n = i;
+            executor.execute(() -> shop(n));
+        }
+
+        long warmupMillis = Math.min(5000, seconds * 200L);
+        long end = System.currentTimeMillis() + warmupMillis;
+        while (System.currentTimeMillis() < end) Thread.sleep(100);
+        for (Histogram h : latency) h.reset();
+        for (LongAdder e : errors) e.reset();
+        stockConflicts.reset();
+        soldOutAdds.reset();
+        emptyCartCheckouts.reset();
+        long start = System.nanoTime();
+        end = System.currentTimeMillis() + seconds * 1000L - warmupMillis;
+        while (System.currentTimeMillis() < end) {
+            Thread.sleep(100);
+            heapPeak = Math.max(heapPeak, memory.getHeapMemoryUsage().getUsed());
+        }
+        running = false;
+        double measured = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+        System.out.printf("%-10s %10s %10s %9s %9s %9s %9s %8s%n", "action", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        long total = 0;
+        for (Action a : Action.values()) {
+            Histogram h = latency[a.ordinal()];
+            long count = h.count();
+            total += count;
+            if (count == 0) continue;
+            System.out.printf("%-10s %10d %10.0f %9.3f %9.3f %9.3f %9.3f %8d%n", a.name().toLowerCase(Locale.ROOT), count, count / measured,
+                    h.quantile(0.50) / 1e6, h.quantile(0.99) / 1e6, h.quantile(0.999) / 1e6, h.max() / 1e6, errors[a.ordinal()].sum());
+        }
+        long committed = latency[Action.CHECKOUT.ordinal()].count(), conflicts = stockConflicts.sum();
+        long attempts = committed + conflicts;
+        System.out.printf("total %.0f ops/s over %.1f s after %.1f s warm-up%n", total / measured, measured, warmupMillis / 1e3);
+        System.out.printf("checkouts: %d committed, %d lost a stock race (%.2f%% of attempts), %d skipped with an empty cart%n",
+                committed, conflicts, attempts == 0 ? 0 : 100.0 * conflicts / attempts, emptyCartCheckouts.sum());
+        System.out.printf("adds refused as sold out: %d%n", soldOutAdds.sum());
+        System.out.printf("heap: %d MB before, %d MB after (%+d MB), %d MB peak%n",
+                heapBefore >> 20, heapAfter >> 20, (heapAfter - heapBefore) >> 20, heapPeak >> 20);
+    }
+
+    private List<String> describeMix() {
+        Map<Action, Integer> weights = new EnumMap<>(Action.class);
+        for (Action a : mix) weights.merge(a, 1, Integer::sum);
+        List<String> out = new ArrayList<>();
+        weights.forEach((a, w) -> out.add(a.name().toLowerCase(Locale.ROOT) + "=" + w));
+        return out;
+    }
+
+    private void shop(int n) {
+        String user = "shopper" + n;
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        SessionStore.Session s;
+        long t = System.nanoTime();
+        try {
+            service.register(user, PASSWORD);
+            s = service.login(user, PASSWORD);
+        } catch (ServiceException e) {
+            errors[Action.REGISTER.ordinal()].increment();
+            return;
+        } finally {
+            latency[Action.REGISTER.ordinal()].record(System.nanoTime() - t);
+        }
+        while (running) {
+            Action a = mix[rnd.nextInt(mix.length)];
+            boolean timed = true;
+            t = System.nanoTime();
+            try {
+                switch (a) {
+                    case LOGIN:
+                        service.logout(s);
+                        s = service.login(user, PASSWORD);
+                        break;
+                    case BROWSE:
+                        service.browse("Load " + rnd.nextInt(CATEGORIES), 0, Long.MAX_VALUE, rnd.nextBoolean(), null, 100);
+                        break;
+                    case ADD:
+                        service.addToCart(s, pickProduct(rnd), 1 + rnd.nextInt(3));
+                        break;
+                    case CHECKOUT:
+                        if (service.cart(s).isEmpty()) {
+                            emptyCartCheckouts.increment();
+                            timed = false;
+                            break;
+                        }
+                        service.checkout(s);
+                        break;
+                    default:
+                        throw new IllegalStateException(a.name());
+                }
+            } catch (ServiceException e) {
+                if (a == Action.CHECKOUT) timed = false; // only committed checkouts are timed
+                if (a == Action.CHECKOUT && "Stock issues".equals(e.getTitle())) {
+                    stockConflicts.increment();
+                    for (CartItem ci : service.cart(s)) service.removeFromCart(s, ci.getProduct().getId()); // start over
+                } else if (a == Action.ADD && !"Error".equals(e.getTitle())) {
+                    soldOutAdds.increment();
+                } else {
+                    errors[a.ordinal()].increment();
+                }
+            } finally {
+                if (timed) latency[a.ordinal()].record(System.nanoTime() - t);
+            }
+        }
+    }
+
+    /** Half the picks go to the first 1% of products, so popular items really do sell out. */
+    private int pickProduct(ThreadLocalRandom rnd) {
+        int hot = Math.max(1, catalogSize / 100);
+        return firstId + (rnd.nextBoolean() ? rnd.nextInt(hot) : rnd.nextInt(catalogSize));
+    }
+}
@@ -0,0 +1,100 @@
+package ecommerce;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JPasswordField;
+import javax.swing.JTextField;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+
+class LoginPanel extends JPanel {
+    private final ECommerceApp app;
+    private final JTextField userField = new JTextField(30);
+    private final JPasswordField passField = new JPasswordField(30);
+    private final JButton loginButton = new JButton("Login");
+    private final JButton registerButton = new JButton("Register");
+    private final JLabel message = new JLabel(" ");
+
+
+    LoginPanel(ECommerceApp app) {
+        this.app = app;
+        setLayout(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(10, 10, 10, 10);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel title = new JLabel("Welcome - Please Login or Register");
+        title.setFont(title.getFont().deriveFont(Font.BOLD, 21f));
+        gbc.gridx = 0; gbc.gridy = 0; gbc.gridwidth = 2;
+        add(title, gbc);
+
+        gbc.gridwidth = 1;
+        gbc.gridy++;
+        add(new JLabel("Username:"), gbc);
+        gbc.gridx = 1;
+        add(userField, gbc);
+
+        gbc.gridx = 0; gbc.gridy++;
+        add(new JLabel("Password:"), gbc);
+        gbc.gridx = 1;
+        add(passField, gbc);
+
+        gbc.gridx = 0; gbc.gridy++;
+        add(loginButton, gbc);
+        gbc.gridx = 1;
+        add(registerButton, gbc);
+
+        gbc.gridx = 0; gbc.gridy++; gbc.gridwidth = 8;
+        message.setForeground(Color.RED);
+        add(message, gbc);
+
+        loginButton.addActionListener(e -> doLogin());
+        registerButton.addActionListener(e -> doRegister());
+
+        loginButton.setEnabled(false);
+        registerButton.setEnabled(false);
+        message.setForeground(Color.GRAY);
+        message.setText("Loading catalog...");
+    }
+
+    void setReady() {
+        loginButton.setEnabled(true);
+        registerButton.setEnabled(true);
+        message.setText(" ");
+    }
+
+    private void doLogin() {
+        String u = userField.getText().trim();
+        String p = new String(passField.getPassword());
+        try {
+            app.session = app.service.login(u, p);
+        } catch (ServiceException ex) {
+            message.setForeground(Color.RED);
+            message.setText(ex.getMessage());
+            return;
+        }
+        message.setForeground(Color.GREEN.darker());
+        message.setText("Login successful. Welcome " + u + "!");
+        // show shop
+        app.shopPanel().refreshCategoryList();
+        app.showCard("SHOP");
+    }
+
+    private void doRegister() {
+        String u = userField.getText().trim();
+        String p = new String(passField.getPassword());
+        try {
+            app.service.register(u, p);
+        } catch (ServiceException ex) {
+            message.setForeground(Color.RED);
+            message.setText(ex.getMessage());
+            return;
+        }
+        message.setForeground(Color.GREEN.darker());
+        message.setText("Registration successful. You can now login.");
+    }
+}
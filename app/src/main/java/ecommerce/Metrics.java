@@ -0,0 +1,111 @@
+package ecommerce;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Hot-path timings, throughput and gauges for the shop. Recording is allocation-free, so
+ * this stays on under full load. {@link #export} publishes it over JMX under the
+ * {@code ecommerce} domain and {@link #startDump} prints a text report periodically.
+ */
+public final class Metrics implements MetricsMBean {
+    /** EDT events running longer than this count as time the UI was blocked. */
+    static final long EDT_BLOCKED_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    final Operation login = new Operation("login");
+    final Operation addToCart = new Operation("addToCart");
+    final Operation checkout = new Operation("checkout");
+    final Operation refreshCart = new Operation("refreshCart");
+    final Operation refreshCategoryList = new Operation("refreshCategoryList");
+    final Histogram cartLines = new Histogram(); // lines in the cart after each add
+    final Histogram commitBatch = new Histogram(); // orders made durable per sync
+    final Histogram edtDispatch = new Histogram();
+    private final LongAdder edtBlockedNanos = new LongAdder();
+    private final List<Operation> operations = Arrays.asList(login, addToCart, checkout, refreshCart, refreshCategoryList);
+    private final LongSupplier catalogProducts, categories, sessions;
+
+    // throughput is reported per dump interval
+    private final long[] lastCounts = new long[operations.size()];
+    private long lastDumpNanos = System.nanoTime();
+
+    Metrics(LongSupplier catalogProducts, LongSupplier categories,
+            LongSupplier sessions) {
+        this.catalogProducts = catalogProducts;
+        this.categories = categories;
+        this.sessions = sessions;
+    }
+
+    List<Operation> operations() { return operations; }
+
+    void recordEdtDispatch(long nanos) {
+        edtDispatch.record(nanos);
+        if (nanos > EDT_BLOCKED_NANOS) edtBlockedNanos.add(nanos);
+    }
+
+    public long getCatalogProducts() { return catalogProducts.getAsLong(); }
+    public long getCategories() { return categories.getAsLong(); }
+    public long getSessions() { return sessions.getAsLong(); }
+    public double getCartLinesP50() { return cartLines.quantile(0.50); }
+    public double getCartLinesP99() { return cartLines.quantile(0.99); }
+    public double getCommitBatchP50() { return commitBatch.quantile(0.50); }
+    public long getCommitBatches() { return commitBatch.count(); }
+    public long getEdtEvents() { return edtDispatch.count(); }
+    public double getEdtBlockedMillis() { return edtBlockedNanos.sum() / 1e6; }
+
+    /** Registers this and one MBean per operation with the platform MBean server. */
+    void export() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        register(server, this, "ecommerce:type=Metrics");
+        for (Operation op : operations) register(server, op, "ecommerce:type=Operation,name=" + op.name);
+    }
+
+    private static void register(MBeanServer server, Object mbean, String name) throws JMException {
+        ObjectName on = new ObjectName(name);
+        if (server.isRegistered(on)) server.unregisterMBean(on);
+        server.registerMBean(mbean, on);
+    }
+
+    /** Prints {@link #dump} every period on a daemon thread. */
+    void startDump(long period, TimeUnit unit, PrintStream out) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleAtFixedRate(() -> out.print(dump()), period, period, unit);
+    }
+
+    /** Text report; throughput is measured since the previous dump. */
+    public synchronized String dump() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastDumpNanos) / 1e9);
+        lastDumpNanos = now;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("---- metrics %tT ----%n", System.currentTimeMillis()));
+        sb.append(String.format("%-20s %10s %9s %9s %9s %9s %9s%n", "operation", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (int i = 0; i < operations.size(); i++) {
+            Operation op = operations.get(i);
+            long count = op.getCount();
+            sb.append(String.format("%-20s %10d %9.1f %9.3f %9.3f %9.3f %9.3f%n", op.name, count, (count - lastCounts[i]) / seconds,
+                    op.getP50Millis(), op.getP99Millis(), op.getP999Millis(), op.getMaxMillis()));
+            lastCounts[i] = count;
+        }
+        sb.append(String.format("catalog %d products in %d categories, %d sessions, cart lines p50 %.0f p99 %.0f%n",
+                getCatalogProducts(), getCategories(), getSessions(), getCartLinesP50(), getCartLinesP99()));
+        sb.append(String.format("order commits %d, batch p50 %d p99 %d max %d%n",
+                getCommitBatches(), commitBatch.quantile(0.50), commitBatch.quantile(0.99), commitBatch.max()));
+        sb.append(String.format("EDT %d events, p99 %.3f ms, blocked %.1f ms%n",
+                getEdtEvents(), edtDispatch.quantile(0.99) / 1e6, getEdtBlockedMillis()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package ecommerce;
+
+/** JMX view of the gauges and Event Dispatch Thread figures. */
+public interface MetricsMBean {
+    long getCatalogProducts();
+    long getCategories();
+    long getSessions();
+    double getCartLinesP50();
+    double getCartLinesP99();
+    double getCommitBatchP50();
+    long getCommitBatches();
+    long getEdtEvents();
+    double getEdtBlockedMillis();
+    String dump();
+}
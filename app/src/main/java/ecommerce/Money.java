@@ -0,0 +1,26 @@
+package ecommerce;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Rupee amounts held as a long count of paise, so sums never pick up floating-point error.
+ * Text is converted only where it enters (admin form, API parameters, import feeds).
+ */
+final class Money {
+    private Money() {}
+
+    /** Parses a rupee amount such as {@code 799} or {@code 799.50}, exactly; rounds past the paisa half up. */
+    static long parse(String rupees) {
+        try {
+            return new BigDecimal(rupees.trim()).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new NumberFormatException("not an amount in rupees: " + rupees);
+        }
+    }
+
+    static String format(long paise) {
+        long abs = Math.abs(paise);
+        return String.format("%s₹%d.%02d", paise < 0 ? "-" : "", abs / 100, abs % 100);
+    }
+}
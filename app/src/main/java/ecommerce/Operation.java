@@ -0,0 +1,23 @@
+package ecommerce;
+
+/** A timed hot-path operation: {@code long t = op.start(); try { .. } finally { op.stop(t); }}. */
+public final class Operation implements OperationMBean {
+    final String name;
+    final Histogram nanos = new Histogram();
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    long start() { return System.nanoTime(); }
+
+    void stop(long start) { nanos.record(System.nanoTime() - start); }
+
+    public long getCount() { return nanos.count(); }
+    public double getMeanMillis() { return nanos.mean() / 1e6; }
+    public double getP50Millis() { return nanos.quantile(0.50) / 1e6; }
+    public double getP99Millis() { return nanos.quantile(0.99) / 1e6; }
+    public double getP999Millis() { return nanos.quantile(0.999) / 1e6; }
+    public double getMaxMillis() { return nanos.max() / 1e6; }
+    public void reset() { nanos.reset(); }
+}
@@ -0,0 +1,12 @@
+package ecommerce;
+
+/** JMX view of one timed operation. */
+public interface OperationMBean {
+    long getCount();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP99Millis();
+    double getP999Millis();
+    double getMaxMillis();
+    void reset();
+}
@@ -0,0 +1,36 @@
+package ecommerce;
+
+import java.util.List;
+
+class Order {
+    private final long id;
+    private final String user;
+    private final long timestamp; // epoch millis
+    private final List<OrderLine> lines;
+    private final long discountPaise; // promotions applied at checkout
+
+    public Order(long id, String user, long timestamp, List<OrderLine> lines) {
+        this(id, user, timestamp, lines, 0);
+    }
+
+    public Order(long id, String user, long timestamp, List<OrderLine> lines, long discountPaise) {
+        this.id = id;
+        this.user = user;
+        this.timestamp = timestamp;
+        this.lines = lines;
+        this.discountPaise = discountPaise;
+    }
+
+    public long getId() { return id; }
+    public String getUser() { return user; }
+    public long getTimestamp() { return timestamp; }
+    public List<OrderLine> getLines() { return lines; }
+    public long getDiscountPaise() { return discountPaise; }
+
+    /** What the shopper paid: line totals less the discount. */
+    public long getTotalPaise() {
+        long total = -discountPaise;
+        for (OrderLine l : lines) total += l.getTotalPaise();
+        return total;
+    }
+}
@@ -0,0 +1,18 @@
+package ecommerce;
+
+class OrderLine {
+    private final int productId;
+    private final int qty;
+    private final long unitPricePaise;
+
+    public OrderLine(int productId, int qty, long unitPricePaise) {
+        this.productId = productId;
+        this.qty = qty;
+        this.unitPricePaise = unitPricePaise;
+    }
+
+    public int getProductId() { return productId; }
+    public int getQty() { return qty; }
+    public long getUnitPricePaise() { return unitPricePaise; }
+    public long getTotalPaise() { return qty * unitPricePaise; }
+}
@@ -0,0 +1,129 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for checkouts. Callers put orders on a bounded queue and get a future back; one
+ * committer thread takes whatever has queued up (up to maxBatch, optionally lingering a moment
+ * for more), hands the batch to the {@link Committer}, which reserves stock and appends every
+ * order before making them all durable with a single sync. While one batch syncs the next one
+ * fills, so the sync is shared by all orders in it. When the queue is full, callers block
+ * (backpressure) and give up with a ServiceException after a timeout.
+ * <p>
+ * A failed sync is fatal: once the log could not be forced there is no telling which orders
+ * reached the disk, so none of the batch is confirmed, everything still queued is failed and
+ * no further orders are accepted. Restarting recovers whatever the log holds.
+ */
+class OrderPipeline {
+    /**
+     * Applies a batch and completes each order's result; it must be durable before completing.
+     * Throwing means the batch as a whole could not be made durable and stops the pipeline.
+     */
+    interface Committer {
+        void commit(List<Pending> batch);
+    }
+
+    static final class Pending {
+        final String user;
+        final List<CartItem> lines;
+        final long discountPaise;
+        final CompletableFuture<Order> result = new CompletableFuture<>();
+
+        Pending(String user, List<CartItem> lines, long discountPaise) {
+            this.user = user;
+            this.lines = lines;
+            this.discountPaise = discountPaise;
+        }
+    }
+
+    static final long SUBMIT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final Committer committer;
+    private final Histogram batchSizes;
+    private volatile RuntimeException failure;
+
+    OrderPipeline(int capacity, int maxBatch, long lingerNanos, Committer committer, Histogram batchSizes) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.lingerNanos = lingerNanos;
+        this.committer = committer;
+        this.batchSizes = batchSizes;
+    }
+
+    void start() {
+        Thread t = new Thread(this::run, "order-commit");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Queues an order, waiting up to timeoutNanos for room (0: not at all); the future completes
+     * once it is durable, or fails with a ServiceException.
+     */
+    CompletableFuture<Order> submit(String user, List<CartItem> lines, long discountPaise, long timeoutNanos) {
+        if (failure != null) throw stopped();
+        Pending p = new Pending(user, lines, discountPaise);
+        try {
+            if (!queue.offer(p, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new ServiceException("Busy", "Too many orders in progress. Please try again.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Busy", "Checkout interrupted.");
+        }
+        // the committer sets failure before its last drain, so an order it missed is still queued here
+        if (failure != null && queue.remove(p)) throw stopped();
+        return p.result;
+    }
+
+    /** The sync failure that stopped the pipeline, or null while it is accepting orders. */
+    RuntimeException failure() {
+        return failure;
+    }
+
+    private ServiceException stopped() {
+        ServiceException e = new ServiceException("Checkout closed",
+                "Orders cannot be saved right now. Your order was not placed; please try again later.");
+        e.initCause(failure);
+        return e;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        for (;;) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                if (lingerNanos > 0 && batch.size() < maxBatch) {
+                    long deadline = System.nanoTime() + lingerNanos;
+                    for (long left = lingerNanos; batch.size() < maxBatch && left > 0; left = deadline - System.nanoTime()) {
+                        Pending more = queue.poll(left, TimeUnit.NANOSECONDS);
+                        if (more == null) break;
+                        batch.add(more);
+                        queue.drainTo(batch, maxBatch - batch.size());
+                    }
+                }
+                batchSizes.record(batch.size());
+                committer.commit(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // the committer fails single orders itself; this is for the batch as a whole (the sync)
+                failure = e;
+                queue.drainTo(batch);
+                for (Pending p : batch) p.result.completeExceptionally(stopped());
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
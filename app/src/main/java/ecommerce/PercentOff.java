@@ -0,0 +1,15 @@
+package ecommerce;
+
+final class PercentOff extends Promotion {
+    private final long basisPoints;
+
+    PercentOff(String description, long basisPoints) {
+        super(description);
+        this.basisPoints = basisPoints;
+    }
+
+    @Override
+    long discount(Product p, int qty) {
+        return qty * p.getPricePaise() * basisPoints / 10_000;
+    }
+}
@@ -0,0 +1,196 @@
+package ecommerce;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Persistent sorted set: a treap whose node priorities are hashes of the elements' identity,
+ * so it stays balanced in expectation. Adding or removing one element copies only the
+ * nodes on one root-to-leaf path; adding a batch builds it as its own treap in linear time
+ * and merges the two.
+ */
+final class PersistentSortedSet<T> {
+    private static final class Node<T> {
+        final T value;
+        final int priority;
+        final Object mark; // the operation that created the node; only it may change the node
+        Node<T> left, right;
+
+        Node(T value, int priority, Node<T> left, Node<T> right, Object mark) {
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.mark = mark;
+        }
+    }
+
+    private final Comparator<? super T> order;
+    private final Node<T> root;
+
+    private PersistentSortedSet(Comparator<? super T> order, Node<T> root) {
+        this.order = order;
+        this.root = root;
+    }
+
+    static <T> PersistentSortedSet<T> empty(Comparator<? super T> order) {
+        return new PersistentSortedSet<>(order, null);
+    }
+
+    boolean isEmpty() { return root == null; }
+
+    boolean contains(T value) {
+        for (Node<T> n = root; n != null; ) {
+            int c = order.compare(value, n.value);
+            if (c == 0) return true;
+            n = c < 0 ? n.left : n.right;
+        }
+        return false;
+    }
+
+    PersistentSortedSet<T> plus(T value) {
+        return contains(value) ? this : new PersistentSortedSet<>(order, insert(root, value, priority(value), new Object()));
+    }
+
+    PersistentSortedSet<T> minus(T value) {
+        return contains(value) ? new PersistentSortedSet<>(order, remove(root, value, new Object())) : this;
+    }
+
+    /** Adds every value; the list may be in any order and is not modified. */
+    PersistentSortedSet<T> plusAll(List<T> values) {
+        if (values.isEmpty()) return this;
+        @SuppressWarnings("unchecked")
+        T[] sorted = (T[]) values.toArray();
+        Arrays.parallelSort(sorted, order);
+        Object mark = new Object();
+        return new PersistentSortedSet<>(order, union(root, build(sorted, mark), mark));
+    }
+
+    /** Ascending iterator over [from, to), or (from, to) unless inclusive; empty if from >= to. */
+    Iterator<T> iterator(T from, boolean inclusive, T to) {
+        // the walk below stops at to's fence, which it never meets if it starts past it
+        if (order.compare(from, to) >= 0) return Collections.emptyIterator();
+        ArrayDeque<Node<T>> path = new ArrayDeque<>();
+        for (Node<T> n = root; n != null; ) {
+            int c = order.compare(n.value, from);
+            if (c > 0 || (c == 0 && inclusive)) {
+                path.push(n);
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+        }
+        Node<T> fence = null; // the first node at or past to; found once so each step compares identities only
+        for (Node<T> n = root; n != null; ) {
+            if (order.compare(n.value, to) >= 0) {
+                fence = n;
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+        }
+        Node<T> end = fence;
+        return new Iterator<T>() {
+            public boolean hasNext() {
+                return !path.isEmpty() && path.peek() != end;
+            }
+
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Node<T> n = path.pop();
+                for (Node<T> c = n.right; c != null; c = c.left) path.push(c);
+                return n.value;
+            }
+        };
+    }
+
+    private static int priority(Object value) {
+        return System.identityHashCode(value) * 0x9E3779B9;
+    }
+
+    /** n with new children: n itself if this operation created it, otherwise a copy. */
+    private static <T> Node<T> with(Node<T> n, Node<T> left, Node<T> right, Object mark) {
+        if (n.mark != mark) return new Node<>(n.value, n.priority, left, right, mark);
+        n.left = left;
+        n.right = right;
+        return n;
+    }
+
+    private Node<T> insert(Node<T> n, T value, int priority, Object mark) {
+        if (n == null) return new Node<>(value, priority, null, null, mark);
+        if (priority > n.priority) {
+            Node<T>[] parts = split(n, value, mark);
+            return new Node<>(value, priority, parts[0], parts[1], mark);
+        }
+        return order.compare(value, n.value) < 0
+                ? with(n, insert(n.left, value, priority, mark), n.right, mark)
+                : with(n, n.left, insert(n.right, value, priority, mark), mark);
+    }
+
+    private Node<T> remove(Node<T> n, T value, Object mark) {
+        int c = order.compare(value, n.value);
+        if (c == 0) return merge(n.left, n.right, mark);
+        return c < 0
+                ? with(n, remove(n.left, value, mark), n.right, mark)
+                : with(n, n.left, remove(n.right, value, mark), mark);
+    }
+
+    /** The nodes below key and the nodes above it; a node equal to key is dropped. */
+    @SuppressWarnings("unchecked")
+    private Node<T>[] split(Node<T> n, T key, Object mark) {
+        if (n == null) return new Node[2];
+        int c = order.compare(key, n.value);
+        if (c == 0) return new Node[] {n.left, n.right};
+        if (c < 0) {
+            Node<T>[] parts = split(n.left, key, mark);
+            parts[1] = with(n, parts[1], n.right, mark);
+            return parts;
+        }
+        Node<T>[] parts = split(n.right, key, mark);
+        parts[0] = with(n, n.left, parts[0], mark);
+        return parts;
+    }
+
+    /** Joins two treaps where everything in a sorts before everything in b. */
+    private Node<T> merge(Node<T> a, Node<T> b, Object mark) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.priority > b.priority
+                ? with(a, a.left, merge(a.right, b, mark), mark)
+                : with(b, merge(a, b.left, mark), b.right, mark);
+    }
+
+    private Node<T> union(Node<T> a, Node<T> b, Object mark) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority < b.priority) {
+            Node<T> t = a;
+            a = b;
+            b = t;
+        }
+        Node<T>[] parts = split(b, a.value, mark);
+        Node<T> left = union(a.left, parts[0], mark), right = union(a.right, parts[1], mark);
+        return with(a, left, right, mark);
+    }
+
+    /** Builds the treap of sorted values in linear time, as a Cartesian tree; duplicates are dropped. */
+    private Node<T> build(T[] sorted, Object mark) {
+        ArrayDeque<Node<T>> spine = new ArrayDeque<>(); // right spine, deepest on top
+        T previous = null;
+        for (T v : sorted) {
+            if (previous != null && order.compare(previous, v) == 0) continue;
+            previous = v;
+            Node<T> n = new Node<>(v, priority(v), null, null, mark), last = null;
+            while (!spine.isEmpty() && spine.peek().priority < n.priority) last = spine.pop();
+            n.left = last;
+            if (!spine.isEmpty()) spine.peek().right = n;
+            spine.push(n);
+        }
+        return spine.peekLast();
+    }
+}
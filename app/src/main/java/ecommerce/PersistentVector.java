@@ -0,0 +1,117 @@
+package ecommerce;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.ToIntFunction;
+
+/**
+ * Persistent vector: a 32-way trie over int indexes. An update copies only the nodes on the
+ * path to the changed slot and shares the rest with the version it came from, so older
+ * versions stay intact and can be read without locks. Setting an index past the end leaves
+ * a gap that reads as null, which lets the same structure key products by id.
+ */
+final class PersistentVector<T> extends AbstractList<T> implements RandomAccess {
+    private static final int BITS = 5, WIDTH = 1 << BITS, MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(null, 0, 0);
+
+    // nodes are Object[WIDTH + 1]; the last slot holds the mark of the Edit that created the
+    // node, which may keep changing it in place until the edit hands out its result
+    private final Object[] root;
+    private final int shift, size;
+
+    private PersistentVector(Object[] root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PersistentVector<T> empty() { return (PersistentVector<T>) EMPTY; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return lookup(index);
+    }
+
+    /** The element at index, or null past either end or in a gap. */
+    T getOrNull(int index) {
+        return index < 0 || index >= size ? null : lookup(index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T lookup(int index) {
+        Object[] node = root;
+        for (int level = shift; node != null && level > 0; level -= BITS) node = (Object[]) node[(index >>> level) & MASK];
+        return node == null ? null : (T) node[index & MASK];
+    }
+
+    PersistentVector<T> plus(T value) {
+        return new Edit<T>(this).set(size, value).result();
+    }
+
+    PersistentVector<T> plusAll(Collection<? extends T> values) {
+        Edit<T> edit = new Edit<>(this);
+        for (T v : values) edit.set(edit.size, v);
+        return edit.result();
+    }
+
+    /** Sets each value at the index it maps to. */
+    PersistentVector<T> withAll(Collection<? extends T> values, ToIntFunction<? super T> indexOf) {
+        Edit<T> edit = new Edit<>(this);
+        for (T v : values) edit.set(indexOf.applyAsInt(v), v);
+        return edit.result();
+    }
+
+    /** A batch of sets under one mark, so a node is copied at most once per batch. */
+    private static final class Edit<T> {
+        private final Object mark = new Object();
+        private Object[] root;
+        private int shift, size;
+
+        Edit(PersistentVector<T> from) {
+            root = from.root;
+            shift = from.shift;
+            size = from.size;
+        }
+
+        Edit<T> set(int index, Object value) {
+            if (index < 0) throw new IndexOutOfBoundsException("Negative index " + index);
+            while ((index >>> shift) > MASK) {
+                if (root != null) {
+                    Object[] up = owned(null);
+                    up[0] = root;
+                    root = up;
+                }
+                shift += BITS;
+            }
+            root = owned(root);
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                int i = (index >>> level) & MASK;
+                Object[] child = owned((Object[]) node[i]);
+                node[i] = child;
+                node = child;
+            }
+            node[index & MASK] = value;
+            size = Math.max(size, index + 1);
+            return this;
+        }
+
+        private Object[] owned(Object[] node) {
+            if (node != null && node[WIDTH] == mark) return node;
+            Object[] copy = node == null ? new Object[WIDTH + 1] : node.clone();
+            copy[WIDTH] = mark;
+            return copy;
+        }
+
+        PersistentVector<T> result() {
+            return new PersistentVector<>(root, shift, size);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorted secondary index over the catalog, for the whole catalog and for each category:
+ * products ordered by price (ties by id), split into in-stock and sold-out sets so that
+ * availability never needs a scan. Price-range queries and cursor paging cost
+ * O(log n + page), and the product count per price band is kept with every version.
+ * Immutable: adds and stock changes return a new index sharing all untouched structure.
+ */
+final class PriceIndex {
+    /** Lower bound (paise) of each price band; the last band is open-ended. */
+    static final long[] BAND_FLOORS = {0, 50_000, 100_000, 500_000, 2_000_000};
+    static final Comparator<Product> BY_PRICE = Comparator.comparingLong(Product::getPricePaise).thenComparingInt(Product::getId);
+    static final PriceIndex EMPTY = new PriceIndex(Scope.EMPTY, Collections.emptyMap());
+
+    private static final class Scope {
+        static final Scope EMPTY = new Scope(PersistentSortedSet.empty(BY_PRICE), PersistentSortedSet.empty(BY_PRICE),
+                new int[BAND_FLOORS.length], new int[BAND_FLOORS.length]);
+
+        final PersistentSortedSet<Product> inStock, soldOut;
+        // never modified once built
+        final int[] bandCounts, bandInStock;
+
+        Scope(PersistentSortedSet<Product> inStock, PersistentSortedSet<Product> soldOut, int[] bandCounts, int[] bandInStock) {
+            this.inStock = inStock;
+            this.soldOut = soldOut;
+            this.bandCounts = bandCounts;
+            this.bandInStock = bandInStock;
+        }
+
+        Scope plusAll(List<Product> products) {
+            List<Product> available = new ArrayList<>(), unavailable = new ArrayList<>();
+            int[] counts = bandCounts.clone(), inStockCounts = bandInStock.clone();
+            for (Product p : products) {
+                int b = band(p.getPricePaise());
+                counts[b]++;
+                if (p.getStock() > 0) {
+                    inStockCounts[b]++;
+                    available.add(p);
+                } else {
+                    unavailable.add(p);
+                }
+            }
+            return new Scope(inStock.plusAll(available), soldOut.plusAll(unavailable), counts, inStockCounts);
+        }
+
+        Scope moved(Product p, boolean available) {
+            int[] inStockCounts = bandInStock.clone();
+            inStockCounts[band(p.getPricePaise())] += available ? 1 : -1;
+            return available
+                    ? new Scope(inStock.plus(p), soldOut.minus(p), bandCounts, inStockCounts)
+                    : new Scope(inStock.minus(p), soldOut.plus(p), bandCounts, inStockCounts);
+        }
+    }
+
+    private final Scope all;
+    private final Map<String, Scope> byCategory; // never modified once built
+
+    private PriceIndex(Scope all, Map<String, Scope> byCategory) {
+        this.all = all;
+        this.byCategory = byCategory;
+    }
+
+    static int band(long pricePaise) {
+        int b = BAND_FLOORS.length - 1;
+        while (b > 0 && pricePaise < BAND_FLOORS[b]) b--;
+        return b;
+    }
+
+    /** Exclusive upper bound (paise) of the band; Long.MAX_VALUE for the last one. */
+    static long bandCeiling(int band) {
+        return band + 1 < BAND_FLOORS.length ? BAND_FLOORS[band + 1] : Long.MAX_VALUE;
+    }
+
+    static String bandLabel(int band) {
+        if (band == 0) return String.format("Under ₹%d", BAND_FLOORS[1] / 100);
+        if (band == BAND_FLOORS.length - 1) return String.format("₹%d and above", BAND_FLOORS[band] / 100);
+        return String.format("₹%d - ₹%d", BAND_FLOORS[band] / 100, BAND_FLOORS[band + 1] / 100);
+    }
+
+    /** Adds a batch; each scope it touches sorts its share once and merges it in. */
+    PriceIndex plusAll(List<Product> products) {
+        if (products.isEmpty()) return this;
+        Map<String, List<Product>> perCategory = new HashMap<>();
+        for (Product p : products) perCategory.computeIfAbsent(p.getCategory(), k -> new ArrayList<>()).add(p);
+        Map<String, Scope> categories = new HashMap<>(byCategory);
+        perCategory.forEach((c, added) -> categories.put(c, categories.getOrDefault(c, Scope.EMPTY).plusAll(added)));
+        return new PriceIndex(all.plusAll(products), categories);
+    }
+
+    /** Re-files products whose stock has crossed zero; this same index if none has. */
+    PriceIndex refreshed(Collection<Product> products) {
+        Scope newAll = all;
+        Map<String, Scope> categories = null;
+        for (Product p : products) {
+            boolean available = p.getStock() > 0;
+            if (newAll.inStock.contains(p) == available) continue;
+            if (categories == null) categories = new HashMap<>(byCategory);
+            newAll = newAll.moved(p, available);
+            categories.put(p.getCategory(), categories.get(p.getCategory()).moved(p, available));
+        }
+        return categories == null ? this : new PriceIndex(newAll, categories);
+    }
+
+    /**
+     * Up to limit products of the category (null for all) priced in [minPaise, maxPaise),
+     * cheapest first, starting after the cursor product (null for the first page). Sold-out
+     * products are merged in by price unless inStockOnly.
+     */
+    List<Product> page(String category, long minPaise, long maxPaise, boolean inStockOnly, Product after, int limit) {
+        Scope scope = category == null ? all : byCategory.get(category);
+        if (scope == null || limit <= 0) return Collections.emptyList();
+        Product from = probe(minPaise), to = probe(maxPaise);
+        boolean inclusive = true;
+        if (after != null && BY_PRICE.compare(after, from) >= 0) {
+            from = after;
+            inclusive = false;
+        }
+        if (BY_PRICE.compare(from, to) > 0) return Collections.emptyList();
+        Iterator<Product> a = scope.inStock.iterator(from, inclusive, to);
+        Iterator<Product> b = inStockOnly ? Collections.emptyIterator() : scope.soldOut.iterator(from, inclusive, to);
+        List<Product> out = new ArrayList<>(Math.min(limit, 256));
+        Product x = a.hasNext() ? a.next() : null, y = b.hasNext() ? b.next() : null;
+        while (out.size() < limit && (x != null || y != null)) {
+            if (y == null || (x != null && BY_PRICE.compare(x, y) < 0)) {
+                out.add(x);
+                x = a.hasNext() ? a.next() : null;
+            } else {
+                out.add(y);
+                y = b.hasNext() ? b.next() : null;
+            }
+        }
+        return out;
+    }
+
+    /** Products per price band in the category (null for all); a copy. */
+    int[] facets(String category, boolean inStockOnly) {
+        Scope scope = category == null ? all : byCategory.get(category);
+        if (scope == null) return new int[BAND_FLOORS.length];
+        return (inStockOnly ? scope.bandInStock : scope.bandCounts).clone();
+    }
+
+    /** Sorts before every real product at this price. */
+    private static Product probe(long pricePaise) {
+        return new Product(Integer.MIN_VALUE, "", "", pricePaise, 0);
+    }
+}
@@ -0,0 +1,42 @@
+package ecommerce;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class Product {
+    private final int id;
+    private final String name;
+    private final String category;
+    private final long pricePaise;
+    private final AtomicInteger stock;
+
+    public Product(int id, String name, String category, long pricePaise, int stock) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.pricePaise = pricePaise;
+        this.stock = new AtomicInteger(stock);
+    }
+
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public String getCategory() { return category; }
+    /** The price in paise; the source of truth, used by all cart and order arithmetic and stored as is. */
+    public long getPricePaise() { return pricePaise; }
+    public int getStock() { return stock.get(); }
+
+    /** Takes q units only if that many are available; never drives stock below zero. */
+    public boolean tryReserve(int q) {
+        for (;;) {
+            int s = stock.get();
+            if (s < q) return false;
+            if (stock.compareAndSet(s, s - q)) return true;
+        }
+    }
+
+    public void increaseStock(int q) { stock.addAndGet(q); }
+
+    @Override
+    public String toString() {
+        return String.format("[%d] %s - %s - %s (Stock: %d)", id, name, category, Money.format(pricePaise), stock.get());
+    }
+}
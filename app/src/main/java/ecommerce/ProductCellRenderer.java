@@ -0,0 +1,19 @@
+package ecommerce;
+
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+import java.awt.Color;
+import java.awt.Component;
+
+/** Formats a product only when its row is actually painted. */
+class ProductCellRenderer extends DefaultListCellRenderer {
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                  boolean isSelected, boolean cellHasFocus) {
+        super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+        if (value instanceof Product && ((Product) value).getStock() <= 0 && !isSelected) {
+            setForeground(Color.GRAY);
+        }
+        return this;
+    }
+}
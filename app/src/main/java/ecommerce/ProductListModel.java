@@ -0,0 +1,73 @@
+package ecommerce;
+
+import javax.swing.AbstractListModel;
+import javax.swing.JList;
+import javax.swing.ListSelectionModel;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Lazy list model over a product list. Rows are never copied or pre-formatted;
+ * the JList asks for elements only when it paints the visible rows.
+ */
+class ProductListModel extends AbstractListModel<Product> {
+    private List<Product> products = Collections.emptyList();
+    // rows the JList has been told about
+    private int size;
+
+    // Used to give product lists a fixed cell size, so Swing never measures every row.
+    private static final Product PROTOTYPE_PRODUCT =
+            new Product(999999, "Prototype product name for sizing", "Home Appliances", 999_999_999, 99999);
+
+    static String names(List<Product> products) {
+        StringJoiner j = new StringJoiner(", ");
+        for (Product p : products) j.add(p.getName());
+        return j.toString();
+    }
+
+    static JList<Product> newProductList(ProductListModel model) {
+        JList<Product> list = new JList<>(model);
+        list.setCellRenderer(new ProductCellRenderer());
+        list.setPrototypeCellValue(PROTOTYPE_PRODUCT);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        return list;
+    }
+
+    public void setProducts(List<Product> products) {
+        int oldSize = size;
+        this.products = products;
+        size = products.size();
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        if (size > 0) fireIntervalAdded(this, 0, size - 1);
+    }
+
+    /** Moves to a later version of the same list, which can only have grown, and announces the new rows. */
+    public void grownTo(List<Product> later) {
+        products = later;
+        int newSize = later.size();
+        if (newSize <= size) return;
+        int from = size;
+        size = newSize;
+        fireIntervalAdded(this, from, newSize - 1);
+    }
+
+    public boolean contains(Product p) {
+        return products.contains(p);
+    }
+
+    /** Repaints the rows in [first, last] whose product is in changed; other rows format lazily anyway. */
+    public void rowsChanged(Set<Product> changed, int first, int last) {
+        if (first < 0) return;
+        for (int i = first; i <= Math.min(last, size - 1); i++) {
+            if (changed.contains(products.get(i))) fireContentsChanged(this, i, i);
+        }
+    }
+
+    @Override
+    public int getSize() { return size; }
+
+    @Override
+    public Product getElementAt(int index) { return products.get(index); }
+}
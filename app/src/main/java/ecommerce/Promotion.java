@@ -0,0 +1,19 @@
+package ecommerce;
+
+/**
+ * A discount rule aimed at one product or one category. Rules only look at a single cart
+ * line, so a line's discount can be recomputed on its own when its quantity changes.
+ */
+abstract class Promotion {
+    private final String description;
+
+    Promotion(String description) {
+        this.description = description;
+    }
+
+    /** Paise off a line of qty units of p. */
+    abstract long discount(Product p, int qty);
+
+    @Override
+    public String toString() { return description; }
+}
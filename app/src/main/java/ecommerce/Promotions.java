@@ -0,0 +1,121 @@
+package ecommerce;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Promotion rules compiled into lookup tables by product id and by category, so pricing a
+ * line costs two hash lookups plus the few rules found there. The best rule for a line wins;
+ * rules do not stack. Immutable: a change of rules compiles a new instance.
+ *
+ * <p>Rules are text, one per line, {@code #} starts a comment:
+ * <pre>
+ * percent-off, product=1001, percent=10
+ * percent-off, category=Clothing, percent=15
+ * buy-get, product=1003, buy=2, get=1
+ * </pre>
+ */
+final class Promotions {
+    static final Promotions NONE = new Promotions(Collections.emptyMap(), Collections.emptyMap(), 0);
+    private static final Promotion[] NO_RULES = new Promotion[0];
+
+    private final Map<Integer, Promotion[]> byProduct;
+    private final Map<String, Promotion[]> byCategory;
+    private final int ruleCount;
+
+    private Promotions(Map<Integer, Promotion[]> byProduct, Map<String, Promotion[]> byCategory, int ruleCount) {
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.ruleCount = ruleCount;
+    }
+
+    int size() { return ruleCount; }
+
+    /** Reads and compiles a rules file; no file means no promotions. */
+    static Promotions load(Path file) throws IOException {
+        if (!Files.exists(file)) return NONE;
+        return compile(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /** @throws IllegalArgumentException naming the first malformed rule */
+    static Promotions compile(List<String> rules) {
+        Map<Integer, List<Promotion>> byProduct = new HashMap<>();
+        Map<String, List<Promotion>> byCategory = new HashMap<>();
+        int count = 0;
+        for (int n = 0; n < rules.size(); n++) {
+            String rule = rules.get(n).replaceFirst("#.*", "").trim();
+            if (rule.isEmpty()) continue;
+            try {
+                Map<String, String> args = new HashMap<>();
+                String[] parts = rule.split(",");
+                for (int i = 1; i < parts.length; i++) {
+                    String[] kv = parts[i].split("=", 2);
+                    if (kv.length != 2) throw new IllegalArgumentException("expected key=value: " + parts[i].trim());
+                    args.put(kv[0].trim(), kv[1].trim());
+                }
+                String target = args.containsKey("category") ? args.get("category") : "product " + required(args, "product");
+                Promotion p;
+                switch (parts[0].trim()) {
+                    case "percent-off": {
+                        long bps = Math.round(Double.parseDouble(required(args, "percent")) * 100);
+                        if (bps <= 0 || bps > 10_000) throw new IllegalArgumentException("percent must be in (0, 100]");
+                        p = new PercentOff(String.format("%s%% off %s", args.get("percent"), target), bps);
+                        break;
+                    }
+                    case "buy-get": {
+                        int buy = Integer.parseInt(required(args, "buy")), get = Integer.parseInt(required(args, "get"));
+                        if (buy <= 0 || get <= 0) throw new IllegalArgumentException("buy and get must be positive");
+                        p = new BuyXGetY(String.format("buy %d get %d free on %s", buy, get, target), buy, get);
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("unknown rule " + parts[0].trim());
+                }
+                if (args.containsKey("category")) byCategory.computeIfAbsent(args.get("category"), k -> new ArrayList<>()).add(p);
+                else byProduct.computeIfAbsent(Integer.parseInt(args.get("product")), k -> new ArrayList<>()).add(p);
+                count++;
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Promotion rule " + (n + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return new Promotions(freeze(byProduct), freeze(byCategory), count);
+    }
+
+    private static String required(Map<String, String> args, String key) {
+        String v = args.get(key);
+        if (v == null) throw new IllegalArgumentException("missing " + key);
+        return v;
+    }
+
+    private static <K> Map<K, Promotion[]> freeze(Map<K, List<Promotion>> rules) {
+        Map<K, Promotion[]> out = new HashMap<>();
+        rules.forEach((k, v) -> out.put(k, v.toArray(NO_RULES)));
+        return out;
+    }
+
+    /** Sets the line's discount and promotion from the best rule that applies to it. */
+    void apply(CartItem line) {
+        Product p = line.getProduct();
+        line.discountPaise = 0;
+        line.promotion = null;
+        best(line, byProduct.getOrDefault(p.getId(), NO_RULES));
+        best(line, byCategory.getOrDefault(p.getCategory(), NO_RULES));
+    }
+
+    private static void best(CartItem line, Promotion[] rules) {
+        for (Promotion rule : rules) {
+            long d = rule.discount(line.getProduct(), line.getQty());
+            if (d > line.discountPaise) {
+                line.discountPaise = d;
+                line.promotion = rule;
+            }
+        }
+    }
+}
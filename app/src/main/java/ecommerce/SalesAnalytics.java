@@ -0,0 +1,213 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Sales figures kept up to date as orders are recorded, so dashboards never rescan the order
+ * history. Units and revenue (in paise) per product, per category and overall live in
+ * LongAdders. Best sellers are tracked all-time, from those per-product totals, and per hour
+ * bucket (the last week is kept); each is a small fixed-size table adjusted in O(size) per
+ * order line, never a map of every product sold. {@link #rebuild} recomputes everything from
+ * history in parallel.
+ */
+class SalesAnalytics {
+    static final long BUCKET_MILLIS = 60 * 60 * 1000L;
+    static final int BUCKETS_KEPT = 24 * 7;
+    static final int TOP_N = 10;
+    /** Products tracked per hour bucket; well above TOP_N so the hourly top N is rarely approximate. */
+    static final int BUCKET_CAPACITY = 8 * TOP_N;
+
+    static final class Totals {
+        final LongAdder units = new LongAdder();
+        final LongAdder revenuePaise = new LongAdder();
+
+        void add(long qty, long paise) {
+            units.add(qty);
+            revenuePaise.add(paise);
+        }
+    }
+
+    static final class Seller {
+        final int productId;
+        final long units;
+
+        Seller(int productId, long units) {
+            this.productId = productId;
+            this.units = units;
+        }
+    }
+
+    /**
+     * Bounded best-seller table: at most {@code capacity} products with their unit counts.
+     * {@link #offer} takes a product's exact running total from elsewhere (all-time, where
+     * the per-product LongAdders already count). {@link #add} counts by itself with the
+     * space-saving scheme: once full, a new product takes over the weakest slot and inherits
+     * its count, so a product's count is exact or over by at most that inherited amount, and
+     * any product selling more than 1/capacity of the bucket's units is sure to be kept.
+     */
+    static final class TopSellers {
+        private final int[] ids;
+        private final long[] units;
+        private int size;
+
+        TopSellers(int capacity) {
+            ids = new int[capacity];
+            units = new long[capacity];
+        }
+
+        /** Records a product's running total; totals only grow, so a stale smaller one is ignored. */
+        synchronized void offer(int productId, long total) {
+            int min = 0;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == productId) {
+                    units[i] = Math.max(units[i], total);
+                    return;
+                }
+                if (units[i] < units[min]) min = i;
+            }
+            if (size < ids.length) {
+                ids[size] = productId;
+                units[size++] = total;
+            } else if (total > units[min]) {
+                ids[min] = productId;
+                units[min] = total;
+            }
+        }
+
+        /** Adds qty units of a product. */
+        synchronized void add(int productId, long qty) {
+            int min = 0;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == productId) {
+                    units[i] += qty;
+                    return;
+                }
+                if (units[i] < units[min]) min = i;
+            }
+            if (size < ids.length) {
+                ids[size] = productId;
+                units[size++] = qty;
+            } else {
+                ids[min] = productId;
+                units[min] += qty;
+            }
+        }
+
+        /** The top {@link #TOP_N}, best first. */
+        synchronized List<Seller> top() {
+            List<Seller> out = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) out.add(new Seller(ids[i], units[i]));
+            out.sort((a, b) -> Long.compare(b.units, a.units));
+            return out.size() > TOP_N ? new ArrayList<>(out.subList(0, TOP_N)) : out;
+        }
+    }
+
+    private final IntFunction<Product> products;
+    private final Map<Integer, Totals> byProduct = new ConcurrentHashMap<>();
+    private final Map<String, Totals> byCategory = new ConcurrentSkipListMap<>();
+    private final Totals overall = new Totals();
+    private final LongAdder orderCount = new LongAdder();
+    private final LongAdder discountPaise = new LongAdder();
+    private final ConcurrentSkipListMap<Long, TopSellers> buckets = new ConcurrentSkipListMap<>();
+    private volatile TopSellers allTime = new TopSellers(TOP_N);
+
+    SalesAnalytics(IntFunction<Product> products) {
+        this.products = products;
+    }
+
+    /** Folds one new order into every figure. Safe to call from many threads. */
+    void record(Order o) {
+        orderCount.increment();
+        discountPaise.add(o.getDiscountPaise());
+        TopSellers bucket = buckets.computeIfAbsent(bucketOf(o.getTimestamp()), k -> new TopSellers(BUCKET_CAPACITY));
+        for (OrderLine l : o.getLines()) {
+            long paise = l.getTotalPaise();
+            Totals product = byProduct.computeIfAbsent(l.getProductId(), k -> new Totals());
+            product.add(l.getQty(), paise);
+            byCategory.computeIfAbsent(categoryOf(l.getProductId()), k -> new Totals()).add(l.getQty(), paise);
+            overall.add(l.getQty(), paise);
+            bucket.add(l.getProductId(), l.getQty());
+            allTime.offer(l.getProductId(), product.units.sum());
+        }
+        while (buckets.size() > BUCKETS_KEPT) buckets.pollFirstEntry();
+    }
+
+    /** Recomputes everything from the order history, aggregating in parallel. */
+    void rebuild(List<Order> history) {
+        byProduct.clear();
+        byCategory.clear();
+        buckets.clear();
+        overall.units.reset();
+        overall.revenuePaise.reset();
+        orderCount.reset();
+        orderCount.add(history.size());
+        discountPaise.reset();
+
+        long oldest = history.stream().mapToLong(Order::getTimestamp).max().orElse(0) - BUCKETS_KEPT * BUCKET_MILLIS;
+        Map<Long, List<Order>> recent = new ConcurrentHashMap<>();
+        history.parallelStream().forEach(o -> {
+            discountPaise.add(o.getDiscountPaise());
+            for (OrderLine l : o.getLines()) {
+                long paise = l.getTotalPaise();
+                byProduct.computeIfAbsent(l.getProductId(), k -> new Totals()).add(l.getQty(), paise);
+                byCategory.computeIfAbsent(categoryOf(l.getProductId()), k -> new Totals()).add(l.getQty(), paise);
+                overall.add(l.getQty(), paise);
+            }
+            if (o.getTimestamp() >= oldest) {
+                recent.computeIfAbsent(bucketOf(o.getTimestamp()), k -> Collections.synchronizedList(new ArrayList<>())).add(o);
+            }
+        });
+        // buckets are independent of each other, so each one is filled by a single thread
+        recent.entrySet().parallelStream().forEach(e -> {
+            TopSellers b = new TopSellers(BUCKET_CAPACITY);
+            for (Order o : e.getValue()) for (OrderLine l : o.getLines()) b.add(l.getProductId(), l.getQty());
+            buckets.put(e.getKey(), b);
+        });
+        TopSellers all = new TopSellers(TOP_N);
+        byProduct.forEach((id, t) -> all.offer(id, t.units.sum()));
+        allTime = all;
+    }
+
+    long orders() { return orderCount.sum(); }
+    /** Gross sales at list price; {@link #discountPaise()} is what promotions took off. */
+    long revenuePaise() { return overall.revenuePaise.sum(); }
+    long discountPaise() { return discountPaise.sum(); }
+    long unitsSold() { return overall.units.sum(); }
+
+    long unitsSold(int productId) {
+        Totals t = byProduct.get(productId);
+        return t == null ? 0 : t.units.sum();
+    }
+
+    /** Category -> revenue in paise, in category order. */
+    Map<String, Long> revenueByCategory() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        byCategory.forEach((c, t) -> out.put(c, t.revenuePaise.sum()));
+        return out;
+    }
+
+    List<Seller> topSellers() { return allTime.top(); }
+
+    /** Best sellers in the hour bucket containing the given time; empty if none were sold. */
+    List<Seller> topSellers(long timestamp) {
+        TopSellers b = buckets.get(bucketOf(timestamp));
+        return b == null ? Collections.emptyList() : b.top();
+    }
+
+    private String categoryOf(int productId) {
+        Product p = products.apply(productId);
+        return p == null ? "(unknown)" : p.getCategory();
+    }
+
+    private static long bucketOf(long timestamp) {
+        return timestamp - Math.floorMod(timestamp, BUCKET_MILLIS);
+    }
+}
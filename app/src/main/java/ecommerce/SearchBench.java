@@ -0,0 +1,60 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds a synthetic catalog and times queries typed one keystroke at a time.
+ * Run with: java -jar ecommerce-app.jar --bench-search [products]
+ */
+class SearchBench {
+    private static final String[] ADJECTIVES = {"Classic", "Wireless", "Portable", "Premium", "Compact", "Smart", "Cotton", "Leather", "Steel", "Ultra"};
+    private static final String[] NOUNS = {"Laptop", "Smartphone", "Headphones", "Shirt", "Jeans", "Shoes", "Kettle", "Blender", "Watch", "Backpack", "Speaker", "Jacket"};
+    private static final String[] BRANDS = {"Acme", "Zenith", "Orion", "Nova", "Vertex", "Lumen", "Apex", "Solace"};
+    private static final String[] CATEGORIES = {"Electronics", "Clothing", "Footwear", "Home Appliances", "Accessories", "Kitchen"};
+    private static final int ROUNDS = 20;
+    private static final String[] QUERIES = {"wireless headphones", "acme laptop", "apex leather jacket", "smartphne", "nova steel watch 42", "blendr", "kitchen kettle"};
+
+    static void run(int count) {
+        Map<Integer, Product> byId = new HashMap<>();
+        SearchIndex index = new SearchIndex(byId::get);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            String name = BRANDS[rnd.nextInt(BRANDS.length)] + " " + ADJECTIVES[rnd.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[rnd.nextInt(NOUNS.length)] + " " + rnd.nextInt(1000);
+            Product p = new Product(i, name, CATEGORIES[rnd.nextInt(CATEGORIES.length)], (100 + rnd.nextInt(50000)) * 100L, rnd.nextInt(100));
+            byId.put(i, p);
+            index.add(p);
+        }
+        System.out.printf("indexed %d products in %d ms%n", count, (System.nanoTime() - t0) / 1_000_000);
+
+        for (int warm = 0; warm < 50; warm++) {
+            for (String q : QUERIES) for (int len = 1; len <= q.length(); len++) index.search(q.substring(0, len), 200);
+        }
+        // each query is typed ROUNDS times so the p99 is not just the slowest keystroke
+        List<Long> samples = new ArrayList<>();
+        for (String q : QUERIES) {
+            long worst = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                for (int len = 1; len <= q.length(); len++) {
+                    String typed = q.substring(0, len);
+                    long s = System.nanoTime();
+                    index.search(typed, 200);
+                    long took = System.nanoTime() - s;
+                    samples.add(took);
+                    worst = Math.max(worst, took);
+                }
+            }
+            System.out.printf("  %-24s worst keystroke %.3f ms%n", q, worst / 1e6);
+        }
+        Collections.sort(samples);
+        System.out.printf("%d keystrokes: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", samples.size(),
+                samples.get(samples.size() / 2) / 1e6, samples.get(samples.size() * 99 / 100) / 1e6,
+                samples.get(samples.size() - 1) / 1e6);
+    }
+}
@@ -0,0 +1,236 @@
+package ecommerce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntFunction;
+
+/**
+ * Inverted index over product name and category words. Each query term matches any indexed
+ * word it is a prefix of; a term with no prefix match falls back to words within a small
+ * edit distance, found through a trigram index. Updated incrementally as products are added.
+ * <p>
+ * One thread adds at a time (the builder, then the service lock); searches take no lock and
+ * run alongside adds. Every structure is append-only and publishes an entry only after it is
+ * complete, and a search ignores ids above the highest one indexed when it started.
+ */
+class SearchIndex {
+    private final ConcurrentNavigableMap<String, IntList> postings = new ConcurrentSkipListMap<>(); // word -> product ids
+    private final Map<String, IntList> wordsByTrigram = new ConcurrentHashMap<>();                 // trigram -> word ordinals
+    private volatile String[] words = new String[64]; // by ordinal; grown by copying
+    private int wordCount;
+    private final IntFunction<Product> resolver;
+    private volatile int maxId;
+    // Query-time bitsets are reused per thread so typing does not churn the heap.
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        long[] filter = new long[0], term = new long[0], seen = new long[0];
+
+        void ensure(int len) {
+            if (filter.length >= len) return;
+            filter = new long[len];
+            term = new long[len];
+            seen = new long[len];
+        }
+    }
+
+    // a filter term may post this many times more ids than the driver before we fall back to text checks
+    private static final int BITSET_FACTOR = 32;
+
+    SearchIndex(IntFunction<Product> resolver) {
+        this.resolver = resolver;
+    }
+
+    void add(Product p) {
+        maxId = Math.max(maxId, p.getId());
+        addWords(p.getName(), p.getId());
+        addWords(p.getCategory(), p.getId());
+    }
+
+    private void addWords(String text, int id) {
+        for (String w : tokenize(text)) {
+            IntList ids = postings.get(w);
+            if (ids == null) {
+                ids = new IntList();
+                postings.put(w, ids);
+                int ordinal = wordCount++;
+                String[] ws = words;
+                if (ordinal == ws.length) words = ws = Arrays.copyOf(ws, ordinal * 2);
+                ws[ordinal] = w; // before the ordinal is posted under any trigram
+                for (String g : trigrams(w)) wordsByTrigram.computeIfAbsent(g, k -> new IntList()).add(ordinal);
+            }
+            // a word repeated in name and category is posted once
+            if (ids.size() == 0 || ids.get(ids.size() - 1) != id) ids.add(id);
+        }
+    }
+
+    /** Products matching every term of the query, at most {@code limit} of them. */
+    List<Product> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) return Collections.emptyList();
+        int lastId = maxId; // ids added after this are not looked at, and fit no bitset
+
+        // The term with the fewest postings drives candidate generation. Other terms are
+        // turned into id bitsets when that is cheap enough, otherwise checked against the
+        // candidate's text; either way we stop as soon as the page is full.
+        List<List<String>> matchers = new ArrayList<>();
+        long[] totals = new long[terms.size()];
+        int driver = 0;
+        for (int i = 0; i < terms.size(); i++) {
+            List<String> ws = wordsFor(terms.get(i));
+            if (ws.isEmpty()) return Collections.emptyList();
+            matchers.add(ws);
+            for (String w : ws) totals[i] += postings.get(w).size();
+            if (totals[i] < totals[driver]) driver = i;
+        }
+
+        Scratch bits = scratch.get();
+        bits.ensure((lastId >> 6) + 1);
+        long[] filter = null;
+        List<List<String>> textChecks = new ArrayList<>();
+        for (int i = 0; i < terms.size(); i++) {
+            if (i == driver) continue;
+            if (totals[i] > BITSET_FACTOR * totals[driver]) textChecks.add(matchers.get(i));
+            else if (filter == null) filter = fill(bits.filter, matchers.get(i), lastId);
+            else and(filter, fill(bits.term, matchers.get(i), lastId));
+        }
+
+        List<Product> results = new ArrayList<>();
+        List<String> driverWords = matchers.get(driver);
+        long[] seen = driverWords.size() > 1 ? clear(bits.seen) : null;
+        for (String w : driverWords) {
+            IntList posted = postings.get(w);
+            int n = posted.size();
+            int[] ids = posted.elements();
+            for (int i = 0; i < n; i++) {
+                int id = ids[i];
+                if (id > lastId) continue;
+                if (filter != null && (filter[id >> 6] & (1L << id)) == 0) continue;
+                if (seen != null) {
+                    if ((seen[id >> 6] & (1L << id)) != 0) continue;
+                    seen[id >> 6] |= 1L << id;
+                }
+                Product p = resolver.apply(id);
+                if (p == null || !matchesText(p, textChecks)) continue;
+                results.add(p);
+                if (results.size() >= limit) return results;
+            }
+        }
+        return results;
+    }
+
+    private long[] fill(long[] bits, List<String> ws, int lastId) {
+        clear(bits);
+        for (String w : ws) {
+            IntList posted = postings.get(w);
+            int n = posted.size();
+            int[] ids = posted.elements();
+            for (int i = 0; i < n; i++) {
+                int id = ids[i];
+                if (id <= lastId) bits[id >> 6] |= 1L << id;
+            }
+        }
+        return bits;
+    }
+
+    private static long[] clear(long[] bits) {
+        Arrays.fill(bits, 0L);
+        return bits;
+    }
+
+    private static void and(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) a[i] &= b[i];
+    }
+
+    private static boolean matchesText(Product p, List<List<String>> checks) {
+        for (List<String> ws : checks) {
+            boolean hit = false;
+            for (String w : ws) {
+                if (hasWordWithPrefix(p.getName(), w) || hasWordWithPrefix(p.getCategory(), w)) { hit = true; break; }
+            }
+            if (!hit) return false;
+        }
+        return true;
+    }
+
+    /** Indexed words a query term stands for: prefix matches, or near misses if there are none. */
+    private List<String> wordsFor(String term) {
+        List<String> prefixed = new ArrayList<>(postings.subMap(term, true, term + Character.MAX_VALUE, false).keySet());
+        if (!prefixed.isEmpty() || term.length() < 3) return prefixed;
+
+        int maxEdits = term.length() <= 5 ? 1 : 2;
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String g : trigrams(term)) {
+            IntList ordinals = wordsByTrigram.get(g);
+            if (ordinals == null) continue;
+            for (int i = 0; i < ordinals.size(); i++) shared.merge(ordinals.get(i), 1, Integer::sum);
+        }
+        // each edit can destroy at most three trigrams of the padded term
+        int minShared = Math.max(1, trigrams(term).size() - 3 * maxEdits);
+        List<String> near = new ArrayList<>();
+        String[] ws = words;
+        for (Map.Entry<Integer, Integer> e : shared.entrySet()) {
+            if (e.getValue() < minShared) continue;
+            String w = ws[e.getKey()];
+            if (Math.abs(w.length() - term.length()) <= maxEdits && editDistance(term, w, maxEdits) <= maxEdits) near.add(w);
+        }
+        return near;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) start = i;
+            else if (!wordChar && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private static List<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        List<String> out = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) out.add(padded.substring(i, i + 3));
+        return out;
+    }
+
+    /** Case-insensitive: does some word in text start with the given lower-case prefix? */
+    static boolean hasWordWithPrefix(String text, String prefix) {
+        for (int i = 0; i + prefix.length() <= text.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+            if (wordStart && text.regionMatches(true, i, prefix, 0, prefix.length())) return true;
+        }
+        return false;
+    }
+
+    /** Levenshtein distance, giving up (returning max + 1) once it must exceed max. */
+    static int editDistance(String a, String b, int max) {
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev; prev = cur; cur = t;
+        }
+        return prev[b.length()];
+    }
+}
@@ -0,0 +1,13 @@
+package ecommerce;
+
+/** A business rule was violated; the message is meant for the shopper, the title for a dialog. */
+class ServiceException extends RuntimeException {
+    private final String title;
+
+    public ServiceException(String title, String message) {
+        super(message);
+        this.title = title;
+    }
+
+    public String getTitle() { return title; }
+}
@@ -0,0 +1,167 @@
+package ecommerce;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Login sessions with their carts, sharded by token so concurrent shoppers rarely contend
+ * on the same lock. Each shard is an access-ordered LinkedHashMap: a lookup moves the session
+ * to the young end, the shard drops its least recently used session once it is over its share
+ * of the size cap, and the idle sweep can stop at the first session that is still fresh.
+ * <p>
+ * Tokens come from one shared SecureRandom. Its lock is taken once per login, for 16 bytes,
+ * and never on the per-request lookup path, so that contention is accepted; a ThreadLocal
+ * generator would be seeded afresh on every virtual thread.
+ */
+class SessionStore {
+    static class Session {
+        private final String token;
+        private final String user;
+        private final Cart cart = new Cart();
+        private volatile long lastAccess;
+
+        Session(String token, String user, long now) {
+            this.token = token;
+            this.user = user;
+            this.lastAccess = now;
+        }
+
+        public String getToken() { return token; }
+        public String getUser() { return user; }
+        /** Guard with synchronized (cart) when touched from more than one thread. */
+        public Cart getCart() { return cart; }
+    }
+
+    private static final class Shard extends LinkedHashMap<String, Session> {
+        private final int max;
+        private long capEvictions;
+
+        Shard(int max) {
+            super(16, 0.75f, true);
+            this.max = max;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+            if (size() <= max) return false;
+            capEvictions++;
+            return true;
+        }
+    }
+
+    private final Shard[] shards;
+    private final long ttlNanos;
+    private final LongSupplier clock; // nanoseconds
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder idleEvictions = new LongAdder();
+
+    SessionStore(int shardCount, int maxSessions, long ttl, TimeUnit unit) {
+        this(shardCount, maxSessions, ttl, unit, System::nanoTime);
+    }
+
+    SessionStore(int shardCount, int maxSessions, long ttl, TimeUnit unit, LongSupplier clock) {
+        this.clock = clock;
+        int n = shardCount <= 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1; // next power of two
+        shards = new Shard[n];
+        for (int i = 0; i < n; i++) shards[i] = new Shard(Math.max(1, maxSessions / n));
+        ttlNanos = unit.toNanos(ttl);
+    }
+
+    Session create(String user) {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        StringBuilder token = new StringBuilder(32);
+        for (byte b : bytes) token.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        Session s = new Session(token.toString(), user, clock.getAsLong());
+        Shard shard = shard(s.token);
+        synchronized (shard) {
+            shard.put(s.token, s);
+        }
+        return s;
+    }
+
+    /** The live session for a token, refreshing its idle timer; null if unknown or expired. */
+    Session get(String token) {
+        if (token == null) return null;
+        Shard shard = shard(token);
+        long now = clock.getAsLong();
+        synchronized (shard) {
+            Session s = shard.get(token);
+            if (s == null) return null;
+            if (now - s.lastAccess > ttlNanos) {
+                shard.remove(token);
+                idleEvictions.increment();
+                return null;
+            }
+            s.lastAccess = now;
+            return s;
+        }
+    }
+
+    void remove(String token) {
+        Shard shard = shard(token);
+        synchronized (shard) {
+            shard.remove(token);
+        }
+    }
+
+    /** Drops every session idle for longer than the TTL; returns how many went. */
+    int sweep() {
+        long now = clock.getAsLong();
+        int removed = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                Iterator<Session> it = shard.values().iterator();
+                while (it.hasNext()) {
+                    if (now - it.next().lastAccess <= ttlNanos) break; // the rest were used more recently
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        idleEvictions.add(removed);
+        return removed;
+    }
+
+    /** Runs {@link #sweep} on a daemon thread every period. */
+    void startSweeper(long period, TimeUnit unit) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleAtFixedRate(this::sweep, period, period, unit);
+    }
+
+    int size() {
+        int n = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                n += shard.size();
+            }
+        }
+        return n;
+    }
+
+    long evictions() {
+        long n = idleEvictions.sum();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                n += shard.capEvictions;
+            }
+        }
+        return n;
+    }
+
+    private Shard shard(String token) {
+        int h = token.hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+}
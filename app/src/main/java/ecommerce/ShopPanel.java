@@ -0,0 +1,323 @@
+package ecommerce;
+
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class ShopPanel extends JPanel {
+    private final ECommerceApp app;
+    private static final int SEARCH_LIMIT = 500;
+    private static final int PAGE_SIZE = 100;
+    private static final int RECOMMENDATIONS = 5;
+    private final JList<String> categoryJList = new JList<>();
+    private final DefaultListModel<String> catModel = new DefaultListModel<>();
+    private final ProductListModel productListModel = new ProductListModel();
+    private final JList<Product> productJList = ProductListModel.newProductList(productListModel);
+    private final JTextField searchField = new JTextField(25);
+    private final JComboBox<String> priceBandBox = new JComboBox<>(); // 0 = any price, b + 1 = band b
+    private final JCheckBox inStockBox = new JCheckBox("In stock only");
+    private final JButton prevPageBtn = new JButton("« Prev");
+    private final JButton nextPageBtn = new JButton("Next »");
+    private final JLabel pageLabel = new JLabel(" ");
+    private final JLabel boughtWithLabel = new JLabel(" ");
+    // cursors of the pages before the shown one; each page starts after its cursor (null = first page)
+    private final List<Product> earlierCursors = new ArrayList<>();
+    private Product pageCursor;
+    private boolean updatingFacets;
+    private final JButton addToCartBtn = new JButton("Add Selected to Cart");
+    private final JButton viewCartBtn = new JButton("View Cart");
+    private final JButton logoutBtn = new JButton("Logout");
+    private final JButton adminBtn = new JButton("Admin Panel (admin only)");
+
+    ShopPanel(ECommerceApp app) {
+        this.app = app;
+        setLayout(new BorderLayout(10, 10));
+        setBorder(new EmptyBorder(10,10,10,10));
+
+        // Left = categories
+        JPanel left = new JPanel(new BorderLayout(5,5));
+        left.add(new JLabel("Categories"), BorderLayout.NORTH);
+        categoryJList.setModel(catModel);
+        left.add(new JScrollPane(categoryJList), BorderLayout.CENTER);
+        categoryJList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        // Center = products
+        JPanel center = new JPanel(new BorderLayout(5,5));
+        JPanel searchBar = new JPanel(new BorderLayout(5,5));
+        searchBar.add(new JLabel("Products"), BorderLayout.WEST);
+        searchBar.add(searchField, BorderLayout.CENTER);
+        searchField.setToolTipText("Search all products by name or category");
+        center.add(searchBar, BorderLayout.NORTH);
+        center.add(new JScrollPane(productJList), BorderLayout.CENTER);
+        JPanel browseBar = new JPanel();
+        browseBar.add(new JLabel("Price:"));
+        browseBar.add(priceBandBox);
+        browseBar.add(inStockBox);
+        browseBar.add(prevPageBtn);
+        browseBar.add(pageLabel);
+        browseBar.add(nextPageBtn);
+        JPanel below = new JPanel(new BorderLayout(5, 5));
+        below.add(browseBar, BorderLayout.NORTH);
+        below.add(boughtWithLabel, BorderLayout.SOUTH);
+        center.add(below, BorderLayout.SOUTH);
+
+        // Bottom actions
+        JPanel actions = new JPanel();
+        actions.add(addToCartBtn);
+        actions.add(viewCartBtn);
+        actions.add(adminBtn);
+        actions.add(logoutBtn);
+
+        add(left, BorderLayout.WEST);
+        add(center, BorderLayout.CENTER);
+        add(actions, BorderLayout.SOUTH);
+
+        // events
+        categoryJList.addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting()) return;
+            // picking a category leaves search mode; clearing the field reloads the list
+            if (!searchField.getText().isEmpty()) searchField.setText("");
+            else loadProductsForSelectedCategory();
+        });
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { runSearch(); }
+            public void removeUpdate(DocumentEvent e) { runSearch(); }
+            public void changedUpdate(DocumentEvent e) { runSearch(); }
+        });
+        productJList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) showBoughtWith();
+        });
+        priceBandBox.addActionListener(e -> {
+            if (!updatingFacets) firstPage();
+        });
+        inStockBox.addActionListener(e -> {
+            refreshFacets();
+            firstPage();
+        });
+        prevPageBtn.addActionListener(e -> {
+            pageCursor = earlierCursors.remove(earlierCursors.size() - 1);
+            loadPage();
+        });
+        nextPageBtn.addActionListener(e -> {
+            earlierCursors.add(pageCursor);
+            pageCursor = productListModel.getElementAt(productListModel.getSize() - 1);
+            loadPage();
+        });
+
+        addToCartBtn.addActionListener(e -> addSelectedProductToCart());
+        viewCartBtn.addActionListener(e -> {
+            app.cartPanel().refreshCart();
+            app.showCard("CART");
+        });
+        logoutBtn.addActionListener(e -> doLogout());
+        adminBtn.addActionListener(e -> {
+            if (app.service.isAdmin(app.session)) {
+                app.adminPanel().refreshUI();
+                app.showCard("ADMIN");
+            } else {
+                JOptionPane.showMessageDialog(app.frame, "Admin only. Login as 'admin' user.", "Access denied", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+
+        refreshCategoryList();
+        app.catalogEvents.subscribe(this::applyCatalogEvents);
+    }
+
+    /**
+     * Applies a batch of catalog changes to just the affected categories and rows. Changes in
+     * other categories leave the facets and the list alone, and the page is only re-read when
+     * a change moves a product onto or off it.
+     */
+    private void applyCatalogEvents(List<CatalogEvent> events) {
+        String shown = categoryJList.getSelectedValue();
+        boolean browsing = searchField.getText().trim().isEmpty(); // a search result stays as it is
+        Set<Product> stockChanged = new HashSet<>();
+        boolean facetsChanged = false, pageChanged = false;
+        for (CatalogEvent e : events) {
+            switch (e.getType()) {
+                case CATEGORY_CREATED: {
+                    int i = 0;
+                    while (i < catModel.size() && catModel.get(i).compareTo(e.getCategory()) < 0) i++;
+                    // a full refresh may already have picked it up
+                    if (i == catModel.size() || !catModel.get(i).equals(e.getCategory())) catModel.add(i, e.getCategory());
+                    break;
+                }
+                case PRODUCT_ADDED: {
+                    if (!e.getCategory().equals(shown)) break;
+                    Product p = e.getProduct();
+                    facetsChanged = true;
+                    pageChanged |= browsing && (!inStockBox.isSelected() || p.getStock() > 0) && inShownRange(p);
+                    break;
+                }
+                case STOCK_CHANGED: {
+                    Product p = e.getProduct();
+                    stockChanged.add(p);
+                    // stock only moves facet counts and page rows when sold-out products are hidden
+                    if (!inStockBox.isSelected() || !e.getCategory().equals(shown)) break;
+                    facetsChanged = true;
+                    pageChanged |= browsing && inShownRange(p) && (p.getStock() > 0) != productListModel.contains(p);
+                    break;
+                }
+            }
+        }
+        if (facetsChanged) refreshFacets();
+        if (pageChanged) loadPage();
+        else if (!stockChanged.isEmpty()) {
+            productListModel.rowsChanged(stockChanged, productJList.getFirstVisibleIndex(), productJList.getLastVisibleIndex());
+        }
+    }
+
+    /**
+     * Whether a product of the shown category sorts into the shown page: in the selected price
+     * band, after the page's cursor, and before its last row unless this is the last page.
+     */
+    private boolean inShownRange(Product p) {
+        int band = priceBandBox.getSelectedIndex() - 1;
+        if (band >= 0 && PriceIndex.band(p.getPricePaise()) != band) return false;
+        if (pageCursor != null && PriceIndex.BY_PRICE.compare(p, pageCursor) <= 0) return false;
+        int size = productListModel.getSize();
+        // past the end of the last page it either fits or turns on Next, so reload either way
+        return !nextPageBtn.isEnabled() || size == 0 || PriceIndex.BY_PRICE.compare(p, productListModel.getElementAt(size - 1)) <= 0;
+    }
+
+    public void refreshCategoryList() {
+        long t = app.metrics.refreshCategoryList.start();
+        catModel.clear();
+        for (String c : app.service.categories()) catModel.addElement(c);
+        if (!catModel.isEmpty()) categoryJList.setSelectedIndex(0);
+        loadProductsForSelectedCategory();
+        app.metrics.refreshCategoryList.stop(t);
+    }
+
+    private void showBoughtWith() {
+        Product p = productJList.getSelectedValue();
+        List<Product> related = p == null ? Collections.emptyList() : app.service.boughtWith(p.getId(), RECOMMENDATIONS);
+        boughtWithLabel.setText(related.isEmpty() ? " " : "Frequently bought together: " + ProductListModel.names(related));
+    }
+
+    private void loadProductsForSelectedCategory() {
+        refreshFacets();
+        firstPage();
+    }
+
+    /** Rewrites the price band choices with their current product counts, keeping the selection. */
+    private void refreshFacets() {
+        String cat = categoryJList.getSelectedValue();
+        int[] counts = cat == null ? new int[PriceIndex.BAND_FLOORS.length] : app.service.priceFacets(cat, inStockBox.isSelected());
+        int selected = Math.max(priceBandBox.getSelectedIndex(), 0);
+        updatingFacets = true;
+        priceBandBox.removeAllItems();
+        priceBandBox.addItem("Any price (" + Arrays.stream(counts).sum() + ")");
+        for (int b = 0; b < counts.length; b++) priceBandBox.addItem(PriceIndex.bandLabel(b) + " (" + counts[b] + ")");
+        priceBandBox.setSelectedIndex(selected);
+        updatingFacets = false;
+    }
+
+    private void firstPage() {
+        earlierCursors.clear();
+        pageCursor = null;
+        loadPage();
+    }
+
+    /** Shows the page after pageCursor, keeping the selected product selected if it is still there. */
+    private void loadPage() {
+        String cat = categoryJList.getSelectedValue();
+        if (cat == null) {
+            productListModel.setProducts(Collections.emptyList());
+            setPaging(false, " ");
+            return;
+        }
+        int band = priceBandBox.getSelectedIndex() - 1;
+        long min = band < 0 ? 0 : PriceIndex.BAND_FLOORS[band];
+        long max = band < 0 ? Long.MAX_VALUE : PriceIndex.bandCeiling(band);
+        // one extra row tells whether there is a next page
+        List<Product> page = app.service.browse(cat, min, max, inStockBox.isSelected(), pageCursor, PAGE_SIZE + 1);
+        boolean more = page.size() > PAGE_SIZE;
+        Product selected = productJList.getSelectedValue();
+        productListModel.setProducts(more ? page.subList(0, PAGE_SIZE) : page);
+        if (selected != null) productJList.setSelectedValue(selected, false);
+        setPaging(more, "Page " + (earlierCursors.size() + 1));
+    }
+
+    private void setPaging(boolean more, String label) {
+        prevPageBtn.setEnabled(!earlierCursors.isEmpty());
+        nextPageBtn.setEnabled(more);
+        pageLabel.setText(label);
+    }
+
+    private void runSearch() {
+        String q = searchField.getText().trim();
+        if (q.isEmpty()) {
+            loadProductsForSelectedCategory();
+            return;
+        }
+        earlierCursors.clear();
+        if (!app.service.searchReady()) {
+            // never build on the EDT; the loader calls searchIndexReady() when it is done
+            productListModel.setProducts(Collections.emptyList());
+            setPaging(false, "Indexing…");
+            return;
+        }
+        productListModel.setProducts(app.service.search(q, SEARCH_LIMIT));
+        setPaging(false, "Search results");
+    }
+
+    /** Runs the query typed while the index was being built. */
+    void searchIndexReady() {
+        if (!searchField.getText().trim().isEmpty()) runSearch();
+    }
+
+    private void addSelectedProductToCart() {
+        Product p = productJList.getSelectedValue();
+        if (p == null) {
+            JOptionPane.showMessageDialog(app.frame, "Select a product first.", "No selection", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        if (p.getStock() <= 0) {
+            JOptionPane.showMessageDialog(app.frame, "Product out of stock.", "Out of stock", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        String qtyStr = JOptionPane.showInputDialog(app.frame, "Enter quantity (Available: " + p.getStock() + "):", "1");
+        if (qtyStr == null) return;
+        int qty;
+        try {
+            qty = Integer.parseInt(qtyStr.trim());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(app.frame, "Invalid quantity.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        CartItem line;
+        try {
+            line = app.service.addToCart(app.session, p.getId(), qty);
+        } catch (ServiceException ex) {
+            JOptionPane.showMessageDialog(app.frame, ex.getMessage(), ex.getTitle(), JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (line.getQty() > qty) JOptionPane.showMessageDialog(app.frame, "Updated cart: " + p.getName() + " x " + line.getQty());
+        else JOptionPane.showMessageDialog(app.frame, "Added to cart: " + p.getName() + " x " + qty);
+    }
+
+    private void doLogout() {
+        app.service.logout(app.session);
+        app.session = null;
+        app.showCard("LOGIN");
+    }
+}
@@ -0,0 +1,342 @@
+package ecommerce;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog, auth, cart and checkout without any UI. The Swing panels and the HTTP API
+ * both go through this; it may be called from many threads at once.
+ */
+class ShopService {
+    static final int MAX_SESSIONS = 200_000;
+    static final long SESSION_TTL_MINUTES = 30;
+
+    static final int ORDER_QUEUE_CAPACITY = 4096;
+
+    private final ECommerceApp app;
+    final SessionStore sessions = new SessionStore(64, MAX_SESSIONS, SESSION_TTL_MINUTES, TimeUnit.MINUTES);
+    private final OrderPipeline orderPipeline;
+
+    ShopService(ECommerceApp app) {
+        this.app = app;
+        // -Decommerce.commit.batch caps orders per sync; -Decommerce.commit.lingerMicros waits that long to fill a batch
+        orderPipeline = new OrderPipeline(ORDER_QUEUE_CAPACITY, Integer.getInteger("ecommerce.commit.batch", 256),
+                TimeUnit.MICROSECONDS.toNanos(Long.getLong("ecommerce.commit.lingerMicros", 0)),
+                this::commitOrders, app.metrics.commitBatch);
+        sessions.startSweeper(1, TimeUnit.MINUTES);
+        orderPipeline.start();
+    }
+
+    // ----- catalog -----
+
+    // Catalog reads take the current version and never lock; see Catalog.
+
+    public List<String> categories() {
+        return app.catalog.categories();
+    }
+
+    /** The category's products in the order added; an unmodifiable snapshot. */
+    public List<Product> productsInCategory(String category) {
+        return app.catalog.inCategory(category);
+    }
+
+    /**
+     * One page of the category (null for all) priced in [minPaise, maxPaise), cheapest first. Pass
+     * the last product of the previous page as the cursor, or null for the first page.
+     */
+    public List<Product> browse(String category, long minPaise, long maxPaise, boolean inStockOnly, Product after, int limit) {
+        return app.catalog.prices().page(category, minPaise, maxPaise, inStockOnly, after, limit);
+    }
+
+    /** Product count per {@link PriceIndex#BAND_FLOORS price band} in the category (null for all). */
+    public int[] priceFacets(String category, boolean inStockOnly) {
+        return app.catalog.prices().facets(category, inStockOnly);
+    }
+
+    public Product product(int id) {
+        Product p = app.catalog.product(id);
+        if (p == null) throw new ServiceException("Error", "Product not found.");
+        return p;
+    }
+
+    /** Waits for the search index if it is still being built; see {@link #searchReady}. */
+    public List<Product> search(String query, int limit) {
+        return app.searchIndex().search(query, limit);
+    }
+
+    /** Whether {@link #search} can answer without waiting for the index to be built. */
+    public boolean searchReady() {
+        return app.searchIndexBuild.isDone();
+    }
+
+    public synchronized Product addProduct(String name, String category, long pricePaise, int stock) {
+        if (name.isEmpty() || category.isEmpty()) throw new ServiceException("Error", "Name and category required.");
+        if (pricePaise < 0 || stock < 0) throw new ServiceException("Error", "Invalid price or stock.");
+        Product p = app.addProductInternal(name, category, pricePaise, stock);
+        app.commitStore();
+        return p;
+    }
+
+    /** Streams a CSV/TSV feed into the catalog, committing one chunk of rows at a time. */
+    public CatalogImporter.Result importProducts(Path file) throws IOException {
+        return CatalogImporter.run(file, (names, categories, prices, stocks, count) -> {
+            synchronized (this) {
+                int firstId = app.nextProductId;
+                app.nextProductId += count;
+                List<Product> chunk = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    Product p = new Product(firstId + i, names[i], categories[i], prices[i], stocks[i]);
+                    chunk.add(p);
+                    app.store.logProductAdded(p);
+                }
+                app.addToCatalog(chunk);
+                app.commitStore();
+            }
+        });
+    }
+
+    // ----- auth -----
+
+    /** Checks the credentials and opens a new session carrying its own cart. */
+    public SessionStore.Session login(String user, String password) {
+        long t = app.metrics.login.start();
+        try {
+            if (user.isEmpty() || password.isEmpty()) throw new ServiceException("Login", "Enter username and password.");
+            if (!password.equals(app.users.get(user))) throw new ServiceException("Login", "Invalid credentials.");
+            return sessions.create(user);
+        } finally {
+            app.metrics.login.stop(t);
+        }
+    }
+
+    /** The session for a token, or null if it is unknown or has expired. */
+    public SessionStore.Session session(String token) {
+        return sessions.get(token);
+    }
+
+    public synchronized void register(String user, String password) {
+        if (user.isEmpty() || password.isEmpty()) throw new ServiceException("Register", "Enter username and password to register.");
+        if (app.users.containsKey(user)) throw new ServiceException("Register", "Username already exists.");
+        app.registerUserInternal(user, password);
+        app.commitStore();
+    }
+
+    public boolean isAdmin(SessionStore.Session s) {
+        return s != null && "admin".equals(s.getUser());
+    }
+
+    /** Ends the shopping session; the cart does not outlive it. */
+    public void logout(SessionStore.Session s) {
+        if (s != null) sessions.remove(s.getToken());
+    }
+
+    // ----- promotions -----
+
+    /** Recompiles the promotions file; carts pick the new rules up the next time they are priced. */
+    public int reloadPromotions() throws IOException {
+        try {
+            app.promotions = Promotions.load(app.promotionsFile());
+        } catch (IllegalArgumentException e) {
+            throw new ServiceException("Promotions", e.getMessage());
+        }
+        return app.promotions.size();
+    }
+
+    // ----- recommendations -----
+
+    /** Up to limit products most often bought together with this one, strongest first. */
+    public List<Product> boughtWith(int productId, int limit) {
+        return products(app.coPurchases.boughtWith(productId), limit);
+    }
+
+    /** Up to limit products most often bought with what is in the cart, excluding the cart's own. */
+    public List<Product> recommendationsFor(SessionStore.Session s, int limit) {
+        Cart cart = s.getCart();
+        int[] ids;
+        synchronized (cart) {
+            ids = cart.lines().stream().mapToInt(ci -> ci.getProduct().getId()).toArray();
+        }
+        return products(app.coPurchases.boughtWithAll(ids, limit), limit);
+    }
+
+    private List<Product> products(int[] ids, int limit) {
+        Catalog c = app.catalog;
+        List<Product> out = new ArrayList<>(Math.min(ids.length, limit));
+        for (int id : ids) {
+            Product p = c.product(id);
+            if (p != null && out.size() < limit) out.add(p);
+        }
+        return out;
+    }
+
+    // ----- cart -----
+
+    /** A copy of the session's cart lines, priced with the current promotions. */
+    public List<CartItem> cart(SessionStore.Session s) {
+        Cart cart = s.getCart();
+        synchronized (cart) {
+            cart.reprice(app.promotions);
+            return new ArrayList<>(cart.lines());
+        }
+    }
+
+    /** Adds qty of a product to the cart, merging with an existing line; returns that line. */
+    public CartItem addToCart(SessionStore.Session s, int productId, int qty) {
+        long t = app.metrics.addToCart.start();
+        try {
+            Product p = product(productId);
+            if (p.getStock() <= 0) throw new ServiceException("Out of stock", "Product out of stock.");
+            if (qty <= 0 || qty > p.getStock()) throw new ServiceException("Invalid qty", "Quantity must be >0 and <= available stock.");
+            Cart cart = s.getCart();
+            synchronized (cart) {
+                int before = cart.size();
+                CartItem ci = cart.add(p, qty, app.promotions);
+                if (cart.size() > before) app.metrics.cartLines.record(cart.size());
+                return ci;
+            }
+        } finally {
+            app.metrics.addToCart.stop(t);
+        }
+    }
+
+    public CartItem removeFromCart(SessionStore.Session s, int productId) {
+        Cart cart = s.getCart();
+        synchronized (cart) {
+            CartItem ci = cart.remove(productId);
+            if (ci == null) throw new ServiceException("No selection", "Select an item (not the total line) to remove.");
+            return ci;
+        }
+    }
+
+    /** Subtotal and discount in paise, read from the cart's running totals. */
+    public CartTotals cartTotals(SessionStore.Session s) {
+        Cart cart = s.getCart();
+        synchronized (cart) {
+            return new CartTotals(cart.subtotalPaise(), cart.discountPaise(app.promotions));
+        }
+    }
+
+    // ----- checkout -----
+
+    /**
+     * Places the cart as an order through the group-commit pipeline and waits until it is
+     * durable. Stock for every line is reserved, or none.
+     */
+    public Order checkout(SessionStore.Session s) {
+        return await(placeOrder(s, OrderPipeline.SUBMIT_TIMEOUT_NANOS));
+    }
+
+    /**
+     * Like {@link #checkout} but returns at once, failing with "Busy" rather than waiting when
+     * the pipeline is full; for the EDT. The future fails with a ServiceException on a stock
+     * shortfall.
+     */
+    public CompletableFuture<Order> placeOrder(SessionStore.Session s) {
+        return placeOrder(s, 0);
+    }
+
+    /**
+     * Copies the cart under its lock and waits for the pipeline outside it, so no thread
+     * blocks while holding a monitor. Once the order is durable, exactly the ordered
+     * quantities come off the cart; anything added meanwhile stays.
+     */
+    private CompletableFuture<Order> placeOrder(SessionStore.Session s, long timeoutNanos) {
+        long t = app.metrics.checkout.start();
+        Cart cart = s.getCart();
+        List<CartItem> lines;
+        long discount;
+        synchronized (cart) {
+            if (cart.isEmpty()) {
+                app.metrics.checkout.stop(t);
+                throw new ServiceException("Empty", "Cart is empty.");
+            }
+            if (!cart.beginCheckout()) {
+                app.metrics.checkout.stop(t);
+                throw new ServiceException("Busy", "This cart is already being checked out.");
+            }
+            lines = new ArrayList<>(cart.size());
+            for (CartItem ci : cart.lines()) lines.add(new CartItem(ci.getProduct(), ci.getQty()));
+            discount = cart.discountPaise(app.promotions);
+        }
+        CompletableFuture<Order> order;
+        try {
+            order = orderPipeline.submit(s.getUser(), lines, discount, timeoutNanos);
+        } catch (RuntimeException e) {
+            synchronized (cart) {
+                cart.endCheckout();
+            }
+            app.metrics.checkout.stop(t);
+            throw e;
+        }
+        return order.whenComplete((o, e) -> {
+            synchronized (cart) {
+                cart.endCheckout();
+                if (o != null) for (CartItem ci : lines) cart.take(ci.getProduct().getId(), ci.getQty());
+            }
+            app.metrics.checkout.stop(t);
+        });
+    }
+
+    private Order await(CompletableFuture<Order> order) {
+        try {
+            return order.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * The pipeline's committer: reserves and records every order of the batch under the
+     * service lock, then syncs once outside it so browsing is not held up by the disk.
+     */
+    private void commitOrders(List<OrderPipeline.Pending> batch) {
+        List<OrderPipeline.Pending> placed = new ArrayList<>(batch.size());
+        List<Order> recorded = new ArrayList<>(batch.size());
+        synchronized (this) {
+            List<Product> touched = new ArrayList<>();
+            for (OrderPipeline.Pending p : batch) {
+                List<CartItem> shortfalls = InventoryEngine.reserveAll(p.lines);
+                for (CartItem ci : p.lines) touched.add(ci.getProduct());
+                if (!shortfalls.isEmpty()) {
+                    StringBuilder sb = new StringBuilder();
+                    for (CartItem ci : shortfalls) {
+                        sb.append(String.format("Not enough stock for %s. Available: %d%n", ci.getProduct().getName(), ci.getProduct().getStock()));
+                    }
+                    p.result.completeExceptionally(new ServiceException("Stock issues", sb.toString()));
+                    continue;
+                }
+                try {
+                    recorded.add(app.recordOrder(p.user, p.lines, p.discountPaise));
+                } catch (RuntimeException e) {
+                    // only this order failed; the others in the batch stand
+                    InventoryEngine.releaseAll(p.lines);
+                    p.result.completeExceptionally(e);
+                    continue;
+                }
+                placed.add(p);
+            }
+            app.catalog = app.catalog.restocked(touched); // one version per batch
+        }
+        if (placed.isEmpty()) return;
+        try {
+            app.store.sync();
+        } catch (RuntimeException e) {
+            // the batch is in memory and maybe on disk, but unconfirmed; the pipeline stops taking orders
+            System.err.println("Order log sync failed, checkout closed: " + e);
+            throw e;
+        }
+        synchronized (this) {
+            app.snapshotIfDue();
+        }
+        for (int i = 0; i < placed.size(); i++) {
+            for (CartItem ci : placed.get(i).lines) app.catalogEvents.publish(CatalogEvent.stockChanged(ci.getProduct()));
+            placed.get(i).result.complete(recorded.get(i));
+        }
+    }
+}
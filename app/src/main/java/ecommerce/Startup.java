@@ -0,0 +1,37 @@
+package ecommerce;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Startup milestones, printed as one line in ms since the JVM started. With
+ * {@code -Decommerce.startup.exit=true} the app exits right after, so a start can be timed
+ * or used as an AppCDS training run.
+ */
+final class Startup {
+    private static final boolean EXIT_WHEN_READY = Boolean.getBoolean("ecommerce.startup.exit");
+    static final String PREFIX = "Startup (ms since JVM start):";
+    private static volatile long firstFrameAt;
+
+    static void firstFrame() {
+        firstFrameAt = System.currentTimeMillis();
+    }
+
+    static void shopReady() {
+        long now = System.currentTimeMillis();
+        ready("firstFrame=" + sinceStart(firstFrameAt) + " shopReady=" + sinceStart(now));
+    }
+
+    static void apiReady() {
+        ready("apiReady=" + sinceStart(System.currentTimeMillis()));
+    }
+
+    // read the JVM start time only after the milestones, so loading JMX is not counted
+    private static long sinceStart(long at) {
+        return at - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    private static void ready(String milestones) {
+        System.out.println(PREFIX + " " + milestones);
+        if (EXIT_WHEN_READY) System.exit(0);
+    }
+}
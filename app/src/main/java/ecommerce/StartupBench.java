@@ -0,0 +1,108 @@
+package ecommerce;
+
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Times cold starts of fresh JVMs against a generated, snapshotted catalog, first plain and
+ * then with an AppCDS archive recorded by a training run. The Swing milestones need a
+ * display; headless machines time the API server instead.
+ */
+class StartupBench {
+    private static final int CATEGORIES = 20;
+
+    static void run(int catalogSize, int runs) throws Exception {
+        Path dir = Files.createTempDirectory("ecommerce-startup");
+        try {
+            seed(dir, catalogSize);
+            boolean headless = GraphicsEnvironment.isHeadless();
+            List<String> appArgs = headless ? Arrays.asList("--server", "0") : Collections.emptyList();
+            Path archive = dir.resolve("ecommerce.jsa");
+            launch(dir, "-XX:ArchiveClassesAtExit=" + archive, appArgs);
+            System.out.printf("startup: %d products, %d runs each, %s%n", catalogSize, runs, headless ? "headless (API server)" : "Swing");
+            System.out.printf("%-8s %-12s %10s %10s%n", "mode", "milestone", "median ms", "best ms");
+            report("default", dir, null, appArgs, runs);
+            report("AppCDS", dir, "-XX:SharedArchiveFile=" + archive, appArgs, runs);
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    /** Fills the store in dir and snapshots it, as a long-running shop would have. */
+    private static void seed(Path dir, int catalogSize) throws IOException {
+        System.setProperty("ecommerce.data", dir.toString());
+        ECommerceApp app = new ECommerceApp(false);
+        Path feed = dir.resolve("feed.csv");
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        try (BufferedWriter w = Files.newBufferedWriter(feed)) {
+            for (int i = 0; i < catalogSize; i++) {
+                w.write("Startup product " + i + ",Startup " + (i % CATEGORIES) + "," + (100 + rnd.nextInt(20000)) + ".00," + rnd.nextInt(100) + "\n");
+            }
+        }
+        app.service.importProducts(feed);
+        Files.delete(feed);
+        synchronized (app.service) {
+            app.store.snapshot(app.catalog.all(), app.users, app.orders);
+        }
+        app.store.close();
+    }
+
+    private static void report(String mode, Path dir, String jvmOption, List<String> appArgs, int runs) throws Exception {
+        Map<String, long[]> samples = new LinkedHashMap<>();
+        for (int r = 0; r < runs; r++) {
+            Map<String, Long> milestones = launch(dir, jvmOption, appArgs);
+            for (Map.Entry<String, Long> m : milestones.entrySet()) {
+                samples.computeIfAbsent(m.getKey(), k -> new long[runs])[r] = m.getValue();
+            }
+        }
+        for (Map.Entry<String, long[]> m : samples.entrySet()) {
+            long[] ms = m.getValue();
+            Arrays.sort(ms);
+            System.out.printf("%-8s %-12s %10d %10d%n", mode, m.getKey(), ms[ms.length / 2], ms[0]);
+        }
+    }
+
+    /** Starts the app in a fresh JVM, waits until it reports ready and exits, and returns its milestones. */
+    private static Map<String, Long> launch(Path dir, String jvmOption, List<String> appArgs) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (jvmOption != null) command.add(jvmOption);
+        command.add("-Decommerce.data=" + dir);
+        command.add("-Decommerce.startup.exit=true");
+        command.add("-Decommerce.metrics.interval=0");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ECommerceApp.class.getName());
+        command.addAll(appArgs);
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Map<String, Long> milestones = new LinkedHashMap<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            for (String line; (line = out.readLine()) != null; ) {
+                if (!line.startsWith(Startup.PREFIX)) continue;
+                for (String kv : line.substring(Startup.PREFIX.length()).trim().split(" ")) {
+                    String[] parts = kv.split("=");
+                    milestones.put(parts[0], Long.parseLong(parts[1]));
+                }
+            }
+        }
+        if (process.waitFor() != 0 || milestones.isEmpty()) throw new IllegalStateException("startup run failed: " + command);
+        return milestones;
+    }
+}
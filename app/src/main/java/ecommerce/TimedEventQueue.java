@@ -0,0 +1,29 @@
+package ecommerce;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+
+/**
+ * Times every event the EDT dispatches. An event that pumps a nested loop (a modal dialog)
+ * is not counted, since the EDT keeps serving other events meanwhile; those are timed
+ * on their own.
+ */
+final class TimedEventQueue extends EventQueue {
+    private final Metrics metrics;
+    private long dispatched; // EDT only
+
+    TimedEventQueue(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long ticket = ++dispatched;
+        long start = System.nanoTime();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            if (dispatched == ticket) metrics.recordEdtDispatch(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cart keeps subtotal and discount current on every change; checked against totals
+ * recomputed from the lines, including when the promotions change under it.
+ */
+class CartTest {
+    private static final Promotions CLOTHING_10 = Promotions.compile(List.of("percent-off, category=Clothing, percent=10"));
+    private static final Promotions MIXED = Promotions.compile(List.of(
+            "percent-off, category=Clothing, percent=10", "buy-get, product=1003, buy=2, get=1"));
+
+    private final Product shirt = new Product(1004, "Shirt", "Clothing", 79_900, 60);
+    private final Product jeans = new Product(1005, "Jeans", "Clothing", 129_900, 40);
+    private final Product headphones = new Product(1003, "Headphones", "Electronics", 120_000, 50);
+
+    @Test
+    void threeShirtsWithTenPercentOffClothing() {
+        Cart cart = new Cart();
+        cart.add(shirt, 1, CLOTHING_10);
+        cart.add(shirt, 2, CLOTHING_10);
+        assertEquals(1, cart.size(), "the same product merges into one line");
+        assertEquals(239_700, cart.subtotalPaise());
+        assertEquals(23_970, cart.discountPaise(CLOTHING_10));
+    }
+
+    @Test
+    void takeAndRemoveAdjustTotals() {
+        Cart cart = new Cart();
+        cart.add(shirt, 3, CLOTHING_10);
+        cart.add(headphones, 1, CLOTHING_10);
+        cart.take(shirt.getId(), 1);
+        assertEquals(2 * 79_900 + 120_000, cart.subtotalPaise());
+        assertEquals(15_980, cart.discountPaise(CLOTHING_10));
+
+        cart.take(shirt.getId(), 5); // more than the line holds drops it
+        assertEquals(1, cart.size());
+        assertEquals(0, cart.discountPaise(CLOTHING_10));
+        assertNull(cart.remove(shirt.getId()));
+        cart.remove(headphones.getId());
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.subtotalPaise());
+    }
+
+    @Test
+    void repricesWhenPromotionsChange() {
+        Cart cart = new Cart();
+        cart.add(shirt, 3, Promotions.NONE);
+        cart.add(headphones, 3, Promotions.NONE);
+        assertEquals(0, cart.discountPaise(Promotions.NONE));
+        assertEquals(23_970 + 120_000, cart.discountPaise(MIXED));
+        assertEquals(23_970, cart.discountPaise(CLOTHING_10));
+    }
+
+    @Test
+    void runningTotalsMatchARecount() {
+        Random rnd = new Random(3);
+        Product[] products = {shirt, jeans, headphones};
+        Promotions[] rules = {Promotions.NONE, CLOTHING_10, MIXED};
+        Cart cart = new Cart();
+        for (int step = 0; step < 5000; step++) {
+            Product p = products[rnd.nextInt(products.length)];
+            Promotions promotions = rules[rnd.nextInt(rules.length)];
+            switch (rnd.nextInt(4)) {
+                case 0:
+                case 1:
+                    cart.add(p, 1 + rnd.nextInt(4), promotions);
+                    break;
+                case 2:
+                    cart.take(p.getId(), 1 + rnd.nextInt(3));
+                    break;
+                default:
+                    if (rnd.nextInt(10) == 0) cart.clear();
+                    else cart.remove(p.getId());
+            }
+            long subtotal = 0, discount = 0;
+            List<CartItem> lines = new ArrayList<>(cart.lines());
+            for (CartItem line : lines) {
+                subtotal += line.getTotalPaise();
+                CartItem fresh = new CartItem(line.getProduct(), line.getQty());
+                promotions.apply(fresh);
+                discount += fresh.getDiscountPaise();
+            }
+            assertEquals(subtotal, cart.subtotalPaise(), "subtotal at step " + step);
+            assertEquals(discount, cart.discountPaise(promotions), "discount at step " + step);
+        }
+    }
+
+    @Test
+    void oneCheckoutAtATime() {
+        Cart cart = new Cart();
+        assertTrue(cart.beginCheckout());
+        assertFalse(cart.beginCheckout());
+        cart.endCheckout();
+        assertTrue(cart.beginCheckout());
+    }
+}
@@ -0,0 +1,132 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feeds split into chunks: rows on both sides of a chunk edge, the last row without a newline,
+ * CRLF line endings, a feed smaller than one chunk, and skipped rows reported by the line
+ * they are on in the file.
+ */
+class CatalogImporterTest {
+    private static final int EDGE = CatalogImporter.CHUNK_LINES;
+
+    @TempDir
+    Path dir;
+
+    private final List<String> rows = new ArrayList<>(); // "name|category|paise|stock", in arrival order
+
+    private CatalogImporter.Result load(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return CatalogImporter.run(file, (names, categories, prices, stocks, count) -> {
+            for (int i = 0; i < count; i++) rows.add(names[i] + "|" + categories[i] + "|" + prices[i] + "|" + stocks[i]);
+        });
+    }
+
+    private static String feed(int rowCount, String newline) {
+        StringBuilder sb = new StringBuilder("name,category,price,stock").append(newline);
+        for (int i = 1; i <= rowCount; i++) sb.append("P").append(i).append(",Cat,").append(i).append(".50,").append(i % 7).append(newline);
+        return sb.toString();
+    }
+
+    private void assertRows(int rowCount) {
+        assertEquals(rowCount, rows.size());
+        for (int i = 1; i <= rowCount; i++) assertEquals("P" + i + "|Cat|" + (i * 100 + 50) + "|" + (i % 7), rows.get(i - 1));
+    }
+
+    @Test
+    void smallerThanOneChunk() throws IOException {
+        CatalogImporter.Result r = load("small.csv", feed(3, "\n"));
+        assertEquals(3, r.rows);
+        assertEquals(0, r.skipped);
+        assertRows(3);
+    }
+
+    @Test
+    void emptyFeed() throws IOException {
+        assertEquals(0, load("empty.csv", "").rows);
+        assertEquals(0, load("header.csv", "name,category,price,stock\n").rows);
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void rowsAroundAChunkEdgeArriveWholeAndInOrder() throws IOException {
+        // the header takes no slot, so rows EDGE and EDGE + 1 end one chunk and start the next
+        int count = 2 * EDGE + 3;
+        CatalogImporter.Result r = load("edge.csv", feed(count, "\n"));
+        assertEquals(count, r.rows);
+        assertRows(count);
+
+        rows.clear();
+        // without a header the first line is data, so the edge moves by one
+        String noHeader = feed(EDGE + 1, "\n").substring("name,category,price,stock\n".length());
+        assertEquals(EDGE + 1, load("edge-no-header.csv", noHeader).rows);
+        assertRows(EDGE + 1);
+    }
+
+    @Test
+    void lastRowWithoutATrailingNewline() throws IOException {
+        String content = feed(EDGE + 2, "\n");
+        assertEquals(EDGE + 2, load("no-newline.csv", content.substring(0, content.length() - 1)).rows);
+        assertRows(EDGE + 2);
+    }
+
+    @Test
+    void crlfLineEndings() throws IOException {
+        CatalogImporter.Result r = load("crlf.csv", feed(EDGE + 2, "\r\n"));
+        assertEquals(0, r.skipped); // a stock of "5\r" would not parse
+        assertRows(EDGE + 2);
+
+        rows.clear();
+        String tsv = "name\tcategory\tprice\tstock\r\nLamp\tHome\t799.00\t3\r\n\"Quoted\"\tHome\t1\t1";
+        assertEquals(2, load("crlf.tsv", tsv).rows);
+        assertEquals(List.of("Lamp|Home|79900|3", "\"Quoted\"|Home|100|1"), rows);
+    }
+
+    @Test
+    void skippedRowsReportTheirLineNumbers() throws IOException {
+        StringBuilder sb = new StringBuilder("name,category,price,stock\n"); // line 1
+        List<Long> bad = new ArrayList<>();
+        for (int line = 2; line <= 2 * EDGE + 10; line++) {
+            if (line == 5) {
+                sb.append('\n'); // blank lines are neither rows nor errors
+            } else if (line == 7 || line == EDGE + 1 || line == EDGE + 2 || line == 2 * EDGE + 10) {
+                sb.append("Broken,Cat,not-a-price,1\n");
+                bad.add((long) line);
+            } else if (line == EDGE + 3) {
+                sb.append("Short,Cat\n");
+                bad.add((long) line);
+            } else {
+                sb.append("P,Cat,1.00,1\n");
+            }
+        }
+        CatalogImporter.Result r = load("bad.csv", sb.toString());
+        assertEquals(bad.size(), r.skipped);
+        assertEquals(bad, r.skippedLines);
+        assertEquals(2 * EDGE + 9 - 1 - bad.size(), r.rows);
+        assertTrue(r.toString().contains("Skipped lines 7, " + (EDGE + 1)), r.toString());
+    }
+
+    @Test
+    void onlyTheFirstSkippedLinesAreReported() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3 * CatalogImporter.REPORTED_LINES; i++) sb.append("P,Cat,1.00,").append(i % 2 == 0 ? "1" : "-1").append('\n');
+        CatalogImporter.Result r = load("many-bad.csv", sb.toString());
+        assertEquals(3 * CatalogImporter.REPORTED_LINES / 2, r.skipped);
+        assertEquals(CatalogImporter.REPORTED_LINES, r.skippedLines.size());
+        assertEquals(2L, r.skippedLines.get(0));
+        assertEquals(2L * CatalogImporter.REPORTED_LINES, r.skippedLines.get(CatalogImporter.REPORTED_LINES - 1));
+        assertTrue(r.toString().endsWith(", ..."), r.toString());
+    }
+}
@@ -0,0 +1,96 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Crash recovery for CatalogStore: cuts the log mid-record (torn body, and file truncated)
+ * and checks that reopening keeps every complete record and accepts new ones.
+ */
+class CatalogStoreRecoveryTest {
+    static class Counts implements CatalogStore.Listener {
+        int products, users, orders;
+        public void productAdded(int id, String name, String category, long pricePaise, int stock) { products++; }
+        public void stockChanged(int productId, int delta) { }
+        public void userRegistered(String user, String password) { users++; }
+        public void orderRecorded(Order order) { orders++; }
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tornRecordIsDropped() throws IOException {
+        checkCut(false);
+    }
+
+    @Test
+    void truncatedRecordIsDropped() throws IOException {
+        checkCut(true);
+    }
+
+    @Test
+    void snapshotThenTruncatedLogTail() throws IOException {
+        List<Product> products = new ArrayList<>();
+        int cutStart, cutEnd;
+        try (CatalogStore store = CatalogStore.open(dir, new Counts())) {
+            for (int i = 0; i < 500; i++) {
+                Product p = new Product(i, "Product " + i, "Cat", i, 1);
+                products.add(p);
+                store.logProductAdded(p);
+            }
+            store.snapshot(products, Collections.singletonMap("user1", "pass1"), Collections.emptyList());
+            store.logOrderPlaced(new Order(1, "user1", 0, Collections.singletonList(new OrderLine(1, 1, 100))));
+            cutStart = store.position();
+            store.logOrderPlaced(new Order(2, "user1", 0, Collections.singletonList(new OrderLine(2, 1, 200))));
+            cutEnd = store.position();
+        }
+        try (FileChannel ch = FileChannel.open(dir.resolve("wal-1.log"), StandardOpenOption.WRITE)) {
+            ch.truncate((cutStart + cutEnd) / 2);
+        }
+        Counts recovered = new Counts();
+        try (CatalogStore ignored = CatalogStore.open(dir, recovered)) {
+            assertEquals(500, recovered.products);
+            assertEquals(1, recovered.users);
+            assertEquals(1, recovered.orders);
+        }
+    }
+
+    private void checkCut(boolean truncateFile) throws IOException {
+        int complete = 1000;
+        int cutStart, cutEnd;
+        try (CatalogStore store = CatalogStore.open(dir, new Counts())) {
+            for (int i = 0; i < complete; i++) store.logProductAdded(new Product(i, "Product " + i, "Cat", i, 1));
+            cutStart = store.position();
+            store.logUserRegistered("torn", "record");
+            cutEnd = store.position();
+        }
+        try (FileChannel ch = FileChannel.open(dir.resolve("wal-0.log"), StandardOpenOption.WRITE)) {
+            int mid = (cutStart + cutEnd) / 2;
+            if (truncateFile) ch.truncate(mid);
+            else ch.write(ByteBuffer.allocate(cutEnd - mid), mid);
+        }
+        Counts recovered = new Counts();
+        try (CatalogStore store = CatalogStore.open(dir, recovered)) {
+            assertEquals(complete, recovered.products, "complete records replayed");
+            assertEquals(0, recovered.users, "the cut record is dropped");
+            store.logUserRegistered("after", "crash");
+        }
+        Counts reopened = new Counts();
+        try (CatalogStore ignored = CatalogStore.open(dir, reopened)) {
+            assertEquals(complete, reopened.products);
+            assertEquals(1, reopened.users, "append after recovery was kept");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recording orders one by one, rebuilding from the full history, and rebuilding from part of
+ * it then recording the rest (what a restart does) must all give every product the same
+ * bought-together list, through row evictions and decay rounds alike.
+ */
+class CoPurchaseIndexTest {
+    private static final int PRODUCTS = 300;
+
+    /** A skewed stream: low ids are bought far more often, so rows overflow and evict. */
+    private static List<Order> orders(int count, long seed) {
+        Random rnd = new Random(seed);
+        List<Order> orders = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            int lines = 1 + rnd.nextInt(rnd.nextInt(20) == 0 ? 60 : 5); // now and then past MAX_LINES_PER_ORDER
+            List<OrderLine> order = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                int id = 1 + (int) (PRODUCTS * Math.pow(rnd.nextDouble(), 3));
+                order.add(new OrderLine(id, 1, 10_000));
+            }
+            orders.add(new Order(n + 1, "user" + rnd.nextInt(50), n, order));
+        }
+        return orders;
+    }
+
+    @Test
+    void incrementalReplayMatchesAFullRebuild() {
+        // long enough to cross two decay rounds
+        List<Order> history = orders(2 * CoPurchaseIndex.DECAY_ORDERS + 12_345, 17);
+
+        CoPurchaseIndex incremental = new CoPurchaseIndex();
+        for (Order o : history) incremental.record(o);
+
+        CoPurchaseIndex rebuilt = new CoPurchaseIndex();
+        rebuilt.rebuild(history);
+
+        CoPurchaseIndex restarted = new CoPurchaseIndex();
+        int split = CoPurchaseIndex.DECAY_ORDERS - 777;
+        restarted.rebuild(history.subList(0, split));
+        for (Order o : history.subList(split, history.size())) restarted.record(o);
+
+        int withNeighbours = 0;
+        for (int id = 0; id <= PRODUCTS + 1; id++) {
+            int[] expected = incremental.boughtWith(id);
+            assertArrayEquals(expected, rebuilt.boughtWith(id), "rebuilt, product " + id);
+            assertArrayEquals(expected, restarted.boughtWith(id), "restarted, product " + id);
+            if (expected.length == CoPurchaseIndex.TOP_K) withNeighbours++;
+        }
+        assertTrue(withNeighbours > PRODUCTS / 2, "too few full rows to compare: " + withNeighbours);
+
+        int[] cart = {1, 2, 3};
+        assertArrayEquals(incremental.boughtWithAll(cart, 5), rebuilt.boughtWithAll(cart, 5));
+        assertArrayEquals(incremental.boughtWithAll(cart, 5), restarted.boughtWithAll(cart, 5));
+    }
+
+    @Test
+    void topNeighboursAreTheMostFrequentWhileRowsFit() {
+        // few products, so no row reaches MAX_NEIGHBOURS and the counts are exact
+        Random rnd = new Random(5);
+        int products = 20;
+        int[][] together = new int[products + 1][products + 1];
+        CoPurchaseIndex index = new CoPurchaseIndex();
+        for (int n = 0; n < 5_000; n++) {
+            int a = 1 + (int) (products * Math.pow(rnd.nextDouble(), 2)), b = 1 + rnd.nextInt(products);
+            index.record(new Order(n, "user1", n, List.of(new OrderLine(a, 1, 100), new OrderLine(b, 1, 100))));
+            if (a != b) {
+                together[a][b]++;
+                together[b][a]++;
+            }
+        }
+        for (int id = 1; id <= products; id++) {
+            int[] top = index.boughtWith(id);
+            assertEquals(Math.min(CoPurchaseIndex.TOP_K, neighbours(together[id])), top.length, "product " + id);
+            for (int i = 1; i < top.length; i++) {
+                assertTrue(together[id][top[i - 1]] >= together[id][top[i]], "product " + id + " not strongest first");
+            }
+            int weakestShown = together[id][top[top.length - 1]];
+            for (int other = 1; other <= products; other++) {
+                if (!contains(top, other)) {
+                    assertTrue(together[id][other] <= weakestShown, "product " + id + " left out " + other);
+                }
+            }
+        }
+    }
+
+    private static int neighbours(int[] counts) {
+        int n = 0;
+        for (int c : counts) if (c > 0) n++;
+        return n;
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for (int i : ids) if (i == id) return true;
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers InventoryEngine from a growing number of threads and checks that no product
+ * ever sold more units than it had.
+ */
+class InventoryEngineTest {
+    private static final int PRODUCTS = 64;
+    private static final int ATTEMPTS = 400_000;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws InterruptedException {
+        int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) runRound(threads);
+    }
+
+    @Test
+    void reservationIsAllOrNothing() {
+        Product plenty = new Product(1, "Plenty", "Stress", 1, 10);
+        Product scarce = new Product(2, "Scarce", "Stress", 1, 1);
+        List<CartItem> cart = List.of(new CartItem(plenty, 3), new CartItem(scarce, 2));
+
+        List<CartItem> shortfalls = InventoryEngine.reserveAll(cart);
+
+        assertEquals(1, shortfalls.size());
+        assertEquals(2, shortfalls.get(0).getProduct().getId());
+        assertEquals(10, plenty.getStock());
+        assertEquals(1, scarce.getStock());
+    }
+
+    private static void runRound(int threads) throws InterruptedException {
+        Product[] products = new Product[PRODUCTS];
+        int initialStock = ATTEMPTS / PRODUCTS; // roughly half of all attempts end up short
+        for (int i = 0; i < PRODUCTS; i++) products[i] = new Product(i, "P" + i, "Stress", 1, initialStock);
+        AtomicLong[] sold = new AtomicLong[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) sold[i] = new AtomicLong();
+
+        Thread[] workers = new Thread[threads];
+        int perThread = ATTEMPTS / threads;
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                List<CartItem> cart = new ArrayList<>();
+                for (int n = 0; n < perThread; n++) {
+                    cart.clear();
+                    int lines = 1 + rnd.nextInt(4);
+                    int first = rnd.nextInt(PRODUCTS);
+                    for (int l = 0; l < lines; l++) {
+                        cart.add(new CartItem(products[(first + l) % PRODUCTS], 1 + rnd.nextInt(3)));
+                    }
+                    if (InventoryEngine.reserveAll(cart).isEmpty()) {
+                        for (CartItem ci : cart) sold[ci.getProduct().getId()].addAndGet(ci.getQty());
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) w.join();
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            int left = products[i].getStock();
+            assertTrue(left >= 0, "product " + i + " went below zero with " + threads + " threads");
+            assertEquals(initialStock, left + sold[i].get(), "product " + i + " oversold with " + threads + " threads");
+        }
+    }
+}
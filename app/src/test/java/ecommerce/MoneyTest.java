@@ -0,0 +1,40 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Parsing rupee text into paise exactly, and formatting paise back. */
+class MoneyTest {
+    @Test
+    void parsesExactly() {
+        assertEquals(79_900, Money.parse("799"));
+        assertEquals(79_950, Money.parse(" 799.5 "));
+        assertEquals(79_999, Money.parse("799.99"));
+        assertEquals(1, Money.parse("0.01"));
+        assertEquals(10, Money.parse("0.10"));
+        assertEquals(299_999_999_999L, Money.parse("2999999999.99"));
+    }
+
+    @Test
+    void roundsPastThePaisaHalfUp() {
+        assertEquals(1, Money.parse("0.005"));
+        assertEquals(0, Money.parse("0.004"));
+        assertEquals(80_000, Money.parse("799.995"));
+    }
+
+    @Test
+    void rejectsWhatIsNotAnAmount() {
+        for (String bad : new String[] {"", "abc", "NaN", "Infinity", "1e30", "12,50"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(bad), bad);
+        }
+    }
+
+    @Test
+    void formats() {
+        assertEquals("₹799.00", Money.format(79_900));
+        assertEquals("₹0.05", Money.format(5));
+        assertEquals("-₹239.70", Money.format(-23_970));
+    }
+}
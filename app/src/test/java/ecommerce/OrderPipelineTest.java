@@ -0,0 +1,98 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Group commit: orders complete once their batch is synced, and a failed sync fails the
+ * batch, everything queued behind it and every later submission.
+ */
+class OrderPipelineTest {
+    private static final long WAIT = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void ordersCompleteAfterTheBatchIsSynced() {
+        OrderPipeline pipeline = start(batch -> {
+            for (OrderPipeline.Pending p : batch) {
+                p.result.complete(new Order(1, p.user, 0, Collections.emptyList(), p.discountPaise));
+            }
+        });
+        Order order = pipeline.submit("user1", Collections.emptyList(), 500, WAIT).join();
+        assertEquals("user1", order.getUser());
+        assertEquals(500, order.getDiscountPaise());
+    }
+
+    @Test
+    void syncFailureStopsTheCheckout() throws InterruptedException {
+        UncheckedIOException diskFull = new UncheckedIOException(new IOException("No space left on device"));
+        CountDownLatch inCommit = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OrderPipeline pipeline = start(batch -> {
+            inCommit.countDown();
+            await(release);
+            throw diskFull; // the orders were recorded, then the sync failed
+        });
+
+        CompletableFuture<Order> first = pipeline.submit("user1", Collections.emptyList(), 0, WAIT);
+        inCommit.await();
+        CompletableFuture<Order> queued = pipeline.submit("user2", Collections.emptyList(), 0, WAIT);
+        release.countDown();
+
+        for (CompletableFuture<Order> f : List.of(first, queued)) {
+            CompletionException e = assertThrows(CompletionException.class, f::join);
+            ServiceException closed = assertInstanceOf(ServiceException.class, e.getCause());
+            assertSame(diskFull, closed.getCause());
+        }
+        assertSame(diskFull, pipeline.failure());
+
+        ServiceException later = assertThrows(ServiceException.class,
+                () -> pipeline.submit("user3", Collections.emptyList(), 0, WAIT));
+        assertEquals("Checkout closed", later.getTitle());
+    }
+
+    @Test
+    void submitRacingTheFailureNeverHangs() throws InterruptedException {
+        OrderPipeline pipeline = start(batch -> {
+            throw new UncheckedIOException(new IOException("sync failed"));
+        });
+        for (int i = 0; i < 1000; i++) {
+            try {
+                CompletableFuture<Order> f = pipeline.submit("user1", Collections.emptyList(), 0, WAIT);
+                assertTrue(f.handle((o, e) -> e).get(5, TimeUnit.SECONDS) instanceof ServiceException);
+            } catch (ServiceException e) {
+                assertNotNull(pipeline.failure());
+            } catch (Exception e) {
+                throw new AssertionError("order neither completed nor refused", e);
+            }
+        }
+    }
+
+    private static OrderPipeline start(OrderPipeline.Committer committer) {
+        OrderPipeline pipeline = new OrderPipeline(64, 16, 0, committer, new Histogram());
+        pipeline.start();
+        return pipeline;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * PersistentSortedSet against a TreeSet driven by the same random adds, removes and batch
+ * adds: contents, membership and range iteration, for the latest and every earlier version.
+ */
+class PersistentSortedSetTest {
+    private static final Comparator<Integer> ORDER = Comparator.naturalOrder();
+    private static final int RANGE = 5000;
+
+    @Test
+    void matchesTreeSetAndKeepsOldVersions() {
+        Random rnd = new Random(7);
+        PersistentSortedSet<Integer> set = PersistentSortedSet.empty(ORDER);
+        TreeSet<Integer> model = new TreeSet<>();
+        List<PersistentSortedSet<Integer>> versions = new ArrayList<>();
+        List<TreeSet<Integer>> snapshots = new ArrayList<>();
+
+        for (int step = 0; step < 3000; step++) {
+            switch (rnd.nextInt(3)) {
+                case 0: {
+                    int v = rnd.nextInt(RANGE);
+                    set = set.plus(v);
+                    model.add(v);
+                    break;
+                }
+                case 1: {
+                    int v = rnd.nextInt(RANGE);
+                    set = set.minus(v);
+                    model.remove(v);
+                    break;
+                }
+                default: {
+                    List<Integer> batch = new ArrayList<>(); // unsorted, with duplicates and values already present
+                    for (int n = rnd.nextInt(200); n > 0; n--) batch.add(rnd.nextInt(RANGE));
+                    set = set.plusAll(batch);
+                    model.addAll(batch);
+                }
+            }
+            if (step % 100 == 0) {
+                versions.add(set);
+                snapshots.add(new TreeSet<>(model));
+            }
+        }
+
+        assertSameContents(model, set, rnd);
+        for (int v = 0; v < versions.size(); v++) assertSameContents(snapshots.get(v), versions.get(v), rnd);
+    }
+
+    @Test
+    void emptyRangeWhenFromIsNotBeforeTo() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) values.add(i);
+        PersistentSortedSet<Integer> set = PersistentSortedSet.<Integer>empty(ORDER).plusAll(values);
+
+        assertFalse(set.iterator(50, true, 50).hasNext());
+        assertFalse(set.iterator(50, false, 50).hasNext());
+        assertFalse(set.iterator(60, true, 40).hasNext());
+        assertFalse(set.iterator(99, false, 10).hasNext());
+    }
+
+    private static void assertSameContents(TreeSet<Integer> model, PersistentSortedSet<Integer> set, Random rnd) {
+        assertEquals(model.isEmpty(), set.isEmpty());
+        assertEquals(new ArrayList<>(model), drain(set.iterator(Integer.MIN_VALUE, true, Integer.MAX_VALUE)));
+        for (int i = 0; i < 200; i++) {
+            int v = rnd.nextInt(RANGE);
+            assertEquals(model.contains(v), set.contains(v), "contains " + v);
+        }
+        for (int i = 0; i < 200; i++) {
+            int from = rnd.nextInt(RANGE + 20) - 10, to = rnd.nextInt(RANGE + 20) - 10;
+            boolean inclusive = rnd.nextBoolean();
+            NavigableSet<Integer> expected = from < to ? model.subSet(from, inclusive, to, false) : new TreeSet<>();
+            assertEquals(new ArrayList<>(expected), drain(set.iterator(from, inclusive, to)),
+                    (inclusive ? "[" : "(") + from + ", " + to + ")");
+        }
+    }
+
+    private static List<Integer> drain(Iterator<Integer> it) {
+        List<Integer> out = new ArrayList<>();
+        while (it.hasNext()) out.add(it.next());
+        return out;
+    }
+}
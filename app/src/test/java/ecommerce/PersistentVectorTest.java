@@ -0,0 +1,73 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * PersistentVector against an ArrayList driven by the same random edits, with every earlier
+ * version checked again after all later edits to show that none of them leaked into it.
+ */
+class PersistentVectorTest {
+    @Test
+    void matchesArrayListAndKeepsOldVersions() {
+        Random rnd = new Random(42);
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> model = new ArrayList<>();
+        List<PersistentVector<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> snapshots = new ArrayList<>();
+
+        for (int step = 0; step < 2000; step++) {
+            switch (rnd.nextInt(3)) {
+                case 0: {
+                    int v = rnd.nextInt();
+                    vector = vector.plus(v);
+                    model.add(v);
+                    break;
+                }
+                case 1: {
+                    List<Integer> batch = new ArrayList<>();
+                    for (int n = rnd.nextInt(100); n > 0; n--) batch.add(rnd.nextInt());
+                    vector = vector.plusAll(batch);
+                    model.addAll(batch);
+                    break;
+                }
+                default: {
+                    // overwrite existing slots and, now and then, set past the end leaving a gap
+                    List<Integer> indexes = new ArrayList<>();
+                    for (int n = 1 + rnd.nextInt(20); n > 0; n--) indexes.add(rnd.nextInt(model.size() + 40));
+                    vector = vector.withAll(indexes, i -> i);
+                    for (int i : indexes) {
+                        while (model.size() <= i) model.add(null);
+                        model.set(i, i);
+                    }
+                }
+            }
+            if (step % 50 == 0) {
+                versions.add(vector);
+                snapshots.add(new ArrayList<>(model));
+            }
+        }
+
+        assertEquals(model, vector);
+        for (int v = 0; v < versions.size(); v++) assertEquals(snapshots.get(v), versions.get(v), "version " + v);
+    }
+
+    @Test
+    void readsPastTheEnd() {
+        PersistentVector<String> vector = PersistentVector.<String>empty().withAll(Collections.singletonList("x"), s -> 40);
+        assertEquals(41, vector.size());
+        assertNull(vector.get(3));
+        assertNull(vector.getOrNull(41));
+        assertNull(vector.getOrNull(-1));
+        assertEquals("x", vector.getOrNull(40));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(41));
+    }
+}
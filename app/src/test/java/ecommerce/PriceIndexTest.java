@@ -0,0 +1,109 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PriceIndex paging and facets against a filtered, sorted copy of the products, before and
+ * after products sell out and are restocked.
+ */
+class PriceIndexTest {
+    private static final String[] CATEGORIES = {"Books", "Garden", "Toys"};
+    private static final int PAGE = 7;
+
+    private final List<Product> products = new ArrayList<>();
+
+    private PriceIndex build() {
+        Random rnd = new Random(11);
+        for (int id = 1; id <= 400; id++) {
+            // prices spread over every band, with repeats so ties are broken by id
+            long price = rnd.nextInt(8) == 0 ? 99_900 : rnd.nextInt(3_000_000);
+            products.add(new Product(id, "P" + id, CATEGORIES[id % CATEGORIES.length], price, rnd.nextInt(4) == 0 ? 0 : 1 + rnd.nextInt(5)));
+        }
+        // two batches, so the second is merged into an existing index
+        return PriceIndex.EMPTY.plusAll(products.subList(0, 250)).plusAll(products.subList(250, products.size()));
+    }
+
+    @Test
+    void pagesAndFacetsMatchAFilteredSort() {
+        PriceIndex index = build();
+        assertMatches(index);
+    }
+
+    @Test
+    void sellOutAndRestockMoveProductsBetweenSets() {
+        PriceIndex index = build();
+        List<Product> sold = products.stream().filter(p -> p.getStock() > 0 && p.getId() % 5 == 0).collect(Collectors.toList());
+        int[] inStockBefore = index.facets("Toys", true), allBefore = index.facets("Toys", false);
+        List<Product> toysInStock = pageAll(index, "Toys", 0, Long.MAX_VALUE, true);
+
+        for (Product p : sold) assertTrue(p.tryReserve(p.getStock()));
+        PriceIndex soldOut = index.refreshed(sold);
+        assertMatches(soldOut);
+        assertArrayEquals(allBefore, soldOut.facets("Toys", false), "sold-out products still count without the stock filter");
+        long soldToys = sold.stream().filter(p -> p.getCategory().equals("Toys")).count();
+        assertEquals(Arrays.stream(inStockBefore).sum() - soldToys, Arrays.stream(soldOut.facets("Toys", true)).sum());
+        assertEquals(toysInStock, pageAll(index, "Toys", 0, Long.MAX_VALUE, true), "the earlier version is unchanged");
+
+        for (Product p : sold) p.increaseStock(3);
+        PriceIndex restocked = soldOut.refreshed(sold);
+        assertMatches(restocked);
+        assertArrayEquals(inStockBefore, restocked.facets("Toys", true));
+        assertEquals(toysInStock, pageAll(restocked, "Toys", 0, Long.MAX_VALUE, true));
+
+        assertSame(restocked, restocked.refreshed(sold), "no stock crossed zero, so nothing to re-file");
+    }
+
+    /** Every category (and all), both stock filters, a few price ranges, paged with the cursor. */
+    private void assertMatches(PriceIndex index) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add(null);
+        for (String c : CATEGORIES) scopes.add(c);
+        long[][] ranges = {{0, Long.MAX_VALUE}, {50_000, 100_000}, {99_900, 99_901}, {1_000_000, 1_000_000}, {2_000_000, 500_000}};
+        for (String category : scopes) {
+            for (boolean inStockOnly : new boolean[] {false, true}) {
+                for (long[] r : ranges) {
+                    assertEquals(expected(category, r[0], r[1], inStockOnly), pageAll(index, category, r[0], r[1], inStockOnly),
+                            category + " [" + r[0] + ", " + r[1] + ") inStockOnly=" + inStockOnly);
+                }
+                int[] counts = new int[PriceIndex.BAND_FLOORS.length];
+                for (Product p : products) {
+                    if ((category == null || category.equals(p.getCategory())) && (!inStockOnly || p.getStock() > 0)) {
+                        counts[PriceIndex.band(p.getPricePaise())]++;
+                    }
+                }
+                assertArrayEquals(counts, index.facets(category, inStockOnly), category + " facets inStockOnly=" + inStockOnly);
+            }
+        }
+    }
+
+    private List<Product> expected(String category, long min, long max, boolean inStockOnly) {
+        return products.stream()
+                .filter(p -> category == null || category.equals(p.getCategory()))
+                .filter(p -> p.getPricePaise() >= min && p.getPricePaise() < max)
+                .filter(p -> !inStockOnly || p.getStock() > 0)
+                .sorted(PriceIndex.BY_PRICE)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Product> pageAll(PriceIndex index, String category, long min, long max, boolean inStockOnly) {
+        List<Product> out = new ArrayList<>();
+        Product cursor = null;
+        for (;;) {
+            List<Product> page = index.page(category, min, max, inStockOnly, cursor, PAGE);
+            out.addAll(page);
+            if (page.size() < PAGE) return out;
+            cursor = page.get(page.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Rule parsing, PercentOff and BuyXGetY arithmetic in paise, and best-rule-wins pricing. */
+class PromotionsTest {
+    private static final Product SHIRT = new Product(1004, "Shirt", "Clothing", 79_900, 60);
+    private static final Product JEANS = new Product(1005, "Jeans", "Clothing", 129_900, 40);
+    private static final Product HEADPHONES = new Product(1003, "Headphones", "Electronics", 120_000, 50);
+
+    @Test
+    void tenPercentOffClothing() {
+        Promotions promotions = Promotions.compile(List.of("percent-off, category=Clothing, percent=10"));
+        CartItem line = priced(promotions, SHIRT, 3);
+        assertEquals(23_970, line.getDiscountPaise()); // 10% of 3 x 799.00 = 239.70
+        assertEquals("10% off Clothing", line.getPromotion().toString());
+    }
+
+    @Test
+    void percentOffRoundsDownToThePaisa() {
+        Product odd = new Product(1, "Odd", "Misc", 101, 10);
+        assertEquals(33, new PercentOff("33%", 3_300).discount(odd, 1)); // 33.33 paise
+        assertEquals(12, new PercentOff("12.5%", 1_250).discount(odd, 1)); // 12.625 paise
+        Promotions fractional = Promotions.compile(List.of("percent-off, product=1, percent=12.5"));
+        assertEquals(12, priced(fractional, odd, 1).getDiscountPaise());
+    }
+
+    @Test
+    void buyXGetYCountsWholeGroupsOnly() {
+        BuyXGetY twoForOne = new BuyXGetY("buy 2 get 1", 2, 1);
+        assertEquals(0, twoForOne.discount(HEADPHONES, 2));
+        assertEquals(120_000, twoForOne.discount(HEADPHONES, 3));
+        assertEquals(120_000, twoForOne.discount(HEADPHONES, 5));
+        assertEquals(240_000, twoForOne.discount(HEADPHONES, 6));
+    }
+
+    @Test
+    void bestRuleWinsAndRulesDoNotStack() {
+        Promotions promotions = Promotions.compile(List.of(
+                "percent-off, category=Clothing, percent=10",
+                "percent-off, product=1005, percent=15",
+                "buy-get, product=1004, buy=2, get=1"));
+        assertEquals(3, promotions.size());
+
+        CartItem jeans = priced(promotions, JEANS, 2);
+        assertEquals(38_970, jeans.getDiscountPaise()); // 15% of 2598.00 beats 10%, and is not added to it
+
+        CartItem twoShirts = priced(promotions, SHIRT, 2);
+        assertEquals(15_980, twoShirts.getDiscountPaise()); // no free shirt yet, so 10% of 1598.00
+        CartItem threeShirts = priced(promotions, SHIRT, 3);
+        assertEquals(79_900, threeShirts.getDiscountPaise()); // one free shirt beats 239.70 off
+        assertTrue(threeShirts.getPromotion() instanceof BuyXGetY);
+
+        CartItem headphones = priced(promotions, HEADPHONES, 4);
+        assertEquals(0, headphones.getDiscountPaise());
+        assertNull(headphones.getPromotion());
+    }
+
+    @Test
+    void commentsAndBlankLinesAreSkipped() {
+        Promotions promotions = Promotions.compile(List.of("# seasonal", "", "buy-get, product=1003, buy=1, get=1  # BOGO"));
+        assertEquals(1, promotions.size());
+        assertEquals(120_000, priced(promotions, HEADPHONES, 2).getDiscountPaise());
+    }
+
+    @Test
+    void malformedRulesNameTheLine() {
+        for (String bad : new String[] {"percent-off, category=Clothing, percent=0", "percent-off, category=Clothing, percent=101",
+                "percent-off, category=Clothing", "buy-get, product=1, buy=0, get=1", "discount, product=1", "percent-off, product"}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Promotions.compile(List.of("# ok", bad)), bad);
+            assertTrue(e.getMessage().startsWith("Promotion rule 2: "), e.getMessage());
+        }
+    }
+
+    @Test
+    void noRules() {
+        assertEquals(0, priced(Promotions.NONE, SHIRT, 3).getDiscountPaise());
+    }
+
+    private static CartItem priced(Promotions promotions, Product p, int qty) {
+        CartItem line = new CartItem(p, qty);
+        promotions.apply(line);
+        return line;
+    }
+}
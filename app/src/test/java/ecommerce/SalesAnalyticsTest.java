@@ -0,0 +1,99 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Best sellers on a skewed stream: a few known heavy hitters over a long tail of products,
+ * many more than an hour bucket tracks. The hourly space-saving table must report every heavy
+ * hitter, each over-counted by at most the bucket's units divided by its capacity; the
+ * all-time board must be exact.
+ */
+class SalesAnalyticsTest {
+    private static final long HOUR = 1_700_000_000_000L / SalesAnalytics.BUCKET_MILLIS * SalesAnalytics.BUCKET_MILLIS;
+    private static final int HEAVY = SalesAnalytics.TOP_N;
+    private static final int TAIL = 5_000;
+
+    private final Map<Integer, Long> sold = new HashMap<>();
+    private long units;
+
+    /** Heavy hitters 1..HEAVY take about 45% of the units between them; the rest is spread over the tail. */
+    private List<Order> stream() {
+        Random rnd = new Random(3);
+        List<Order> orders = new ArrayList<>();
+        for (int n = 0; units < 100_000; n++) {
+            List<OrderLine> lines = new ArrayList<>();
+            for (int i = 1 + rnd.nextInt(3); i > 0; i--) {
+                int id = rnd.nextInt(100) < 45
+                        ? 1 + (int) (HEAVY * Math.pow(rnd.nextDouble(), 1.5)) // skewed within the heavy hitters too
+                        : HEAVY + 1 + rnd.nextInt(TAIL);
+                int qty = 1 + rnd.nextInt(3);
+                lines.add(new OrderLine(id, qty, 10_000));
+                sold.merge(id, (long) qty, Long::sum);
+                units += qty;
+            }
+            orders.add(new Order(n + 1, "user1", HOUR + rnd.nextInt((int) SalesAnalytics.BUCKET_MILLIS), lines));
+        }
+        return orders;
+    }
+
+    @Test
+    void hourlyTopHoldsTheHeavyHittersWithinTheErrorBound() {
+        List<Order> orders = stream();
+        SalesAnalytics recorded = new SalesAnalytics(id -> null);
+        for (Order o : orders) recorded.record(o);
+        SalesAnalytics rebuilt = new SalesAnalytics(id -> null);
+        rebuilt.rebuild(orders);
+
+        long bound = units / SalesAnalytics.BUCKET_CAPACITY;
+        for (long tail : tailCounts()) assertTrue(tail + bound < sold.get(HEAVY), "stream not skewed enough for the test");
+
+        for (SalesAnalytics analytics : List.of(recorded, rebuilt)) {
+            List<SalesAnalytics.Seller> top = analytics.topSellers(HOUR + 1);
+            assertEquals(HEAVY, top.size());
+            for (int i = 1; i < top.size(); i++) assertTrue(top.get(i - 1).units >= top.get(i).units, "not best first");
+            for (SalesAnalytics.Seller s : top) {
+                assertTrue(s.productId >= 1 && s.productId <= HEAVY, "tail product " + s.productId + " in the top");
+                long exact = sold.get(s.productId);
+                assertTrue(s.units >= exact && s.units <= exact + bound,
+                        "product " + s.productId + ": " + s.units + " units, exact " + exact + ", bound " + bound);
+            }
+            assertTrue(analytics.topSellers(HOUR - 1).isEmpty());
+        }
+    }
+
+    @Test
+    void allTimeTopIsExact() {
+        List<Order> orders = stream();
+        SalesAnalytics recorded = new SalesAnalytics(id -> null);
+        for (Order o : orders) recorded.record(o);
+        SalesAnalytics rebuilt = new SalesAnalytics(id -> null);
+        rebuilt.rebuild(orders);
+
+        List<Long> expected = sold.values().stream().sorted(Comparator.reverseOrder()).limit(HEAVY).collect(Collectors.toList());
+        for (SalesAnalytics analytics : List.of(recorded, rebuilt)) {
+            assertEquals(units, analytics.unitsSold());
+            List<SalesAnalytics.Seller> top = analytics.topSellers();
+            assertEquals(expected, top.stream().map(s -> s.units).collect(Collectors.toList()));
+            for (SalesAnalytics.Seller s : top) assertEquals((long) sold.get(s.productId), s.units);
+        }
+    }
+
+    private List<Long> tailCounts() {
+        List<Long> tail = new ArrayList<>();
+        sold.forEach((id, u) -> {
+            if (id > HEAVY) tail.add(u);
+        });
+        return tail;
+    }
+}
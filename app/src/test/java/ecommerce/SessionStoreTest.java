@@ -0,0 +1,80 @@
+package ecommerce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/** Idle expiry on lookup and by sweep, and least-recently-used eviction at the size cap, on a fake clock. */
+class SessionStoreTest {
+    private static final long TTL = TimeUnit.MINUTES.toNanos(30);
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private SessionStore store(int shards, int maxSessions) {
+        return new SessionStore(shards, maxSessions, 30, TimeUnit.MINUTES, now::get);
+    }
+
+    @Test
+    void lookupRefreshesAndExpiresAfterTheTtl() {
+        SessionStore store = store(4, 100);
+        SessionStore.Session s = store.create("user1");
+        assertNotEquals(store.create("user1").getToken(), s.getToken());
+
+        now.addAndGet(TTL - 1);
+        assertSame(s, store.get(s.getToken()));
+        now.addAndGet(TTL); // idle for exactly the TTL since that lookup
+        assertSame(s, store.get(s.getToken()));
+        now.addAndGet(TTL + 1);
+        assertNull(store.get(s.getToken()));
+        assertNull(store.get(s.getToken()), "an expired session is gone, not just hidden");
+        assertEquals(1, store.evictions());
+        assertNull(store.get(null));
+    }
+
+    @Test
+    void sweepDropsOnlyIdleSessions() {
+        SessionStore store = store(1, 100);
+        SessionStore.Session old1 = store.create("old1"), old2 = store.create("old2");
+        now.addAndGet(TTL / 2);
+        SessionStore.Session recent = store.create("recent");
+        store.get(old1.getToken()); // used again, so no longer idle
+        now.addAndGet(TTL / 2 + 1);
+
+        assertEquals(1, store.sweep());
+        assertNull(store.get(old2.getToken()));
+        assertNotNull(store.get(old1.getToken()));
+        assertNotNull(store.get(recent.getToken()));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void fullStoreEvictsTheLeastRecentlyUsed() {
+        SessionStore store = store(1, 3);
+        SessionStore.Session a = store.create("a"), b = store.create("b"), c = store.create("c");
+        store.get(a.getToken());
+        SessionStore.Session d = store.create("d");
+
+        assertEquals(3, store.size());
+        assertNull(store.get(b.getToken()), "b was used least recently");
+        assertNotNull(store.get(a.getToken()));
+        assertNotNull(store.get(c.getToken()));
+        assertNotNull(store.get(d.getToken()));
+        assertEquals(1, store.evictions());
+    }
+
+    @Test
+    void removeEndsTheSession() {
+        SessionStore store = store(8, 100);
+        SessionStore.Session s = store.create("user1");
+        store.remove(s.getToken());
+        assertNull(store.get(s.getToken()));
+        assertEquals(0, store.size());
+    }
+}
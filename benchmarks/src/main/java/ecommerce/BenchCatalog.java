@@ -0,0 +1,54 @@
+package ecommerce;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/** Builds a headless app over a generated catalog in a throwaway data directory. */
+final class BenchCatalog {
+    static final int CATEGORIES = 20;
+    static final int FIRST_ID = 1001;
+    /** The first id of a generated product; the seeded samples before it have little stock. */
+    static final int FIRST_GENERATED_ID = FIRST_ID + 7;
+
+    private BenchCatalog() {}
+
+    /**
+     * Imports {@code products} generated rows into a fresh store. The app also seeds its seven
+     * sample products first, so ids run from {@link #FIRST_ID} to {@code FIRST_ID + products + 6}.
+     * Stock is effectively unlimited so checkout benchmarks never run dry.
+     */
+    static ECommerceApp create(int products) throws IOException {
+        Path dir = Files.createTempDirectory("ecommerce-bench");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteTree(dir)));
+        System.setProperty("ecommerce.data", dir.toString());
+        ECommerceApp app = new ECommerceApp(false);
+
+        Path feed = dir.resolve("feed.csv");
+        try (BufferedWriter w = Files.newBufferedWriter(feed, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < products; i++) {
+                w.write("Product " + i + ",Category " + (i % CATEGORIES) + "," + (100 + i % 5000) + ".50,1000000000\n");
+            }
+        }
+        app.service.importProducts(feed);
+        Files.delete(feed);
+        return app;
+    }
+
+    static String category(int i) {
+        return "Category " + (i % CATEGORIES);
+    }
+
+    private static void deleteTree(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
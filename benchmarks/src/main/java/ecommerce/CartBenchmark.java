@@ -0,0 +1,70 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Cart add (merge into an existing line), cart totals and promotion repricing, over growing carts. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int cartLines;
+
+    private ECommerceApp app;
+    private SessionStore.Session session;
+    private Promotions[] promotions;
+    private int flip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        app = BenchCatalog.create(10_000);
+        // two rule sets of the same shape, so every reprice has to redo all lines
+        promotions = new Promotions[2];
+        for (int v = 0; v < 2; v++) {
+            List<String> rules = new ArrayList<>();
+            for (int c = 0; c < BenchCatalog.CATEGORIES; c++) rules.add("percent-off, category=" + BenchCatalog.category(c) + ", percent=" + (5 + v));
+            for (int i = 0; i < 1000; i += 2) {
+                rules.add("buy-get, product=" + (BenchCatalog.FIRST_GENERATED_ID + i) + ", buy=2, get=1");
+                rules.add("percent-off, product=" + (BenchCatalog.FIRST_GENERATED_ID + i + 1) + ", percent=" + (20 + v));
+            }
+            promotions[v] = Promotions.compile(rules);
+        }
+    }
+
+    /** Refilled every iteration so merged quantities never approach stock or int overflow. */
+    @Setup(Level.Iteration)
+    public void fillCart() {
+        app.service.logout(session);
+        session = app.service.login("user1", "pass1");
+        for (int i = 0; i < cartLines; i++) app.service.addToCart(session, BenchCatalog.FIRST_GENERATED_ID + i, 1);
+    }
+
+    @Benchmark
+    public CartItem addToExistingLine() {
+        return app.service.addToCart(session, BenchCatalog.FIRST_GENERATED_ID + cartLines - 1, 1);
+    }
+
+    /** The totals CartPanel.refreshCart shows on every view. */
+    @Benchmark
+    public CartTotals cartTotals() {
+        return app.service.cartTotals(session);
+    }
+
+    /** Applying a changed rule set to every line of the cart. */
+    @Benchmark
+    public long repriceWithPromotions() {
+        Cart cart = session.getCart();
+        synchronized (cart) {
+            return cart.discountPaise(promotions[flip ^= 1]);
+        }
+    }
+}
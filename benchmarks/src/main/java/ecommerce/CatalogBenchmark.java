@@ -0,0 +1,53 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Product lookup by id, category listing, price-range paging and product formatting over growing catalogs. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int catalogSize;
+
+    private ECommerceApp app;
+    private int idCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        app = BenchCatalog.create(catalogSize);
+        idCount = catalogSize + 7;
+    }
+
+    @Benchmark
+    public Product lookupById() {
+        return app.service.product(BenchCatalog.FIRST_ID + ThreadLocalRandom.current().nextInt(idCount));
+    }
+
+    /** What the HTTP API does for GET /api/products?category=..: fetch the category from the current catalog version, uncopied. */
+    @Benchmark
+    public List<Product> listCategory() {
+        return app.service.productsInCategory(BenchCatalog.category(ThreadLocalRandom.current().nextInt(BenchCatalog.CATEGORIES)));
+    }
+
+    /** One 100-row page of a category in a ₹1000-wide price range, as ShopPanel shows it. */
+    @Benchmark
+    public List<Product> browsePriceRange() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        long min = (100 + r.nextInt(4000)) * 100L;
+        return app.service.browse(BenchCatalog.category(r.nextInt(BenchCatalog.CATEGORIES)), min, min + 100_000, true, null, 100);
+    }
+
+    @Benchmark
+    public String productToString() {
+        return lookupById().toString();
+    }
+}
@@ -0,0 +1,67 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog reads (id lookups, category listing, price-range pages) while an admin thread keeps
+ * adding products. Readers take the current catalog version without a lock, so their
+ * throughput should grow with reader threads however busy the writer is. Vary the readers
+ * with -tg: readsUnderWrites with -tg 1,1 then 2,1, 4,1 and 8,1 (readers, writer), and
+ * readsOnly, the same reads with no writer, with -tg 1, 2, 4 and 8.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogReadBenchmark {
+    @Param({"100000"})
+    int catalogSize;
+
+    private ECommerceApp app;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        app = BenchCatalog.create(catalogSize);
+    }
+
+    @Benchmark
+    @Group("readsUnderWrites")
+    @GroupThreads(4)
+    public Object read() {
+        return readOnce();
+    }
+
+    @Benchmark
+    @Group("readsUnderWrites")
+    @GroupThreads(1)
+    public Product write() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        return app.service.addProduct("Admin product", BenchCatalog.category(r.nextInt(BenchCatalog.CATEGORIES)), (100 + r.nextInt(5000)) * 100L, 10);
+    }
+
+    @Benchmark
+    @Group("readsOnly")
+    @GroupThreads(4)
+    public Object readAlone() {
+        return readOnce();
+    }
+
+    private Object readOnce() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        switch (r.nextInt(3)) {
+            case 0:
+                return app.service.product(BenchCatalog.FIRST_ID + r.nextInt(catalogSize));
+            case 1:
+                return app.service.productsInCategory(BenchCatalog.category(r.nextInt(BenchCatalog.CATEGORIES))).get(r.nextInt(100));
+            default:
+                long min = (100 + r.nextInt(4000)) * 100L;
+                return app.service.browse(BenchCatalog.category(r.nextInt(BenchCatalog.CATEGORIES)), min, min + 100_000, true, null, 20);
+        }
+    }
+}
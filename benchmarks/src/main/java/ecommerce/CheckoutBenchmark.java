@@ -0,0 +1,36 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** Fill a cart and check it out: stock reservation, order record, log append and sync. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+    @Param({"1", "10", "50"})
+    int cartLines;
+
+    @Param({"10000", "1000000"})
+    int catalogSize;
+
+    private ECommerceApp app;
+    private SessionStore.Session session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        app = BenchCatalog.create(catalogSize);
+        session = app.service.login("user1", "pass1");
+    }
+
+    @Benchmark
+    public Order checkout() {
+        for (int i = 0; i < cartLines; i++) app.service.addToCart(session, BenchCatalog.FIRST_GENERATED_ID + i, 1);
+        return app.service.checkout(session);
+    }
+}
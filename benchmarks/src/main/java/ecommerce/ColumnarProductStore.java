@@ -0,0 +1,116 @@
+package ecommerce;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Product catalog stored column by column: int ids, prices in paise (long minor units), int
+ * stock, dictionary-encoded categories, and all names packed into one UTF-8 byte array. An
+ * {@link IntIntMap} maps ids to rows. The numeric columns can live off-heap in direct buffers.
+ * This is a layout for {@link FootprintReport} to measure, not a store the app runs on: the
+ * shop serves the versioned {@link Catalog}, whose Product objects carry the live stock.
+ */
+class ColumnarProductStore {
+    private static final VarHandle INT_BUFFER =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG_BUFFER =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final boolean offHeap;
+    private int capacity, rows;
+    // on-heap columns
+    private int[] ids, stock, categoryCode, nameStart;
+    private long[] priceMinor;
+    // off-heap columns (same layout, used when offHeap)
+    private ByteBuffer idsBuf, stockBuf, categoryBuf, priceBuf;
+    private byte[] names = new byte[1024];
+    private int namesEnd;
+    private final IntIntMap rowById;
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private final List<String> categories = new ArrayList<>();
+
+    ColumnarProductStore(int expected, boolean offHeap) {
+        this.offHeap = offHeap;
+        this.rowById = new IntIntMap(expected);
+        resize(Math.max(16, expected));
+    }
+
+    void add(int id, String name, String category, long pricePaise, int stockQty) {
+        if (rowById.get(id) >= 0) throw new IllegalArgumentException("Duplicate product id " + id);
+        if (rows == capacity) resize(capacity + (capacity >> 1));
+        int row = rows++;
+        Integer code = categoryCodes.get(category);
+        if (code == null) {
+            code = categories.size();
+            categories.add(category.intern());
+            categoryCodes.put(category, code);
+        }
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        if (namesEnd + utf8.length > names.length) names = Arrays.copyOf(names, Math.max(names.length * 2, namesEnd + utf8.length));
+        System.arraycopy(utf8, 0, names, namesEnd, utf8.length);
+        nameStart[row] = namesEnd;
+        namesEnd += utf8.length;
+        setInt(ids, idsBuf, row, id);
+        setInt(categoryCode, categoryBuf, row, code);
+        setInt(stock, stockBuf, row, stockQty);
+        if (offHeap) LONG_BUFFER.set(priceBuf, row * 8, pricePaise);
+        else priceMinor[row] = pricePaise;
+        rowById.put(id, row);
+    }
+
+    int size() { return rows; }
+
+    /** The row holding a product id, or -1. */
+    int row(int id) { return rowById.get(id); }
+
+    long priceMinor(int row) { return offHeap ? (long) LONG_BUFFER.get(priceBuf, row * 8) : priceMinor[row]; }
+
+    int stock(int row) { return getInt(stock, stockBuf, row); }
+
+    String category(int row) { return categories.get(getInt(categoryCode, categoryBuf, row)); }
+
+    String name(int row) {
+        int end = row + 1 < rows ? nameStart[row + 1] : namesEnd;
+        return new String(names, nameStart[row], end - nameStart[row], StandardCharsets.UTF_8);
+    }
+
+    private int getInt(int[] column, ByteBuffer buf, int row) {
+        return offHeap ? (int) INT_BUFFER.get(buf, row * 4) : column[row];
+    }
+
+    private void setInt(int[] column, ByteBuffer buf, int row, int v) {
+        if (offHeap) INT_BUFFER.set(buf, row * 4, v);
+        else column[row] = v;
+    }
+
+    private void resize(int newCapacity) {
+        nameStart = nameStart == null ? new int[newCapacity] : Arrays.copyOf(nameStart, newCapacity);
+        if (offHeap) {
+            idsBuf = grow(idsBuf, newCapacity * 4L);
+            stockBuf = grow(stockBuf, newCapacity * 4L);
+            categoryBuf = grow(categoryBuf, newCapacity * 4L);
+            priceBuf = grow(priceBuf, newCapacity * 8L);
+        } else {
+            ids = ids == null ? new int[newCapacity] : Arrays.copyOf(ids, newCapacity);
+            stock = stock == null ? new int[newCapacity] : Arrays.copyOf(stock, newCapacity);
+            categoryCode = categoryCode == null ? new int[newCapacity] : Arrays.copyOf(categoryCode, newCapacity);
+            priceMinor = priceMinor == null ? new long[newCapacity] : Arrays.copyOf(priceMinor, newCapacity);
+        }
+        capacity = newCapacity;
+    }
+
+    private static ByteBuffer grow(ByteBuffer old, long bytes) {
+        if (bytes > Integer.MAX_VALUE) throw new IllegalStateException("Column exceeds 2 GB");
+        ByteBuffer b = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        if (old != null) b.put(old.duplicate().clear());
+        return b.clear();
+    }
+}
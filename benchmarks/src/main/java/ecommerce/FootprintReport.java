@@ -0,0 +1,83 @@
+package ecommerce;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Compares retained heap of plain collections (HashMap by id, insertion-order and
+ * per-category lists), the versioned Catalog (with its price index) and
+ * ColumnarProductStore for the same generated products.
+ * Run with: java -Xmx4g -cp benchmarks.jar ecommerce.FootprintReport [n ...]   (defaults: 1000000 10000000)
+ */
+class FootprintReport {
+    private static final String[] CATEGORIES = {"Electronics", "Clothing", "Footwear", "Home Appliances", "Accessories", "Kitchen"};
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {1_000_000, 10_000_000};
+        System.out.printf("%-12s %-22s %10s %10s %14s%n", "products", "layout", "heap MB", "direct MB", "bytes/product");
+        for (int n : sizes) {
+            report(n, "HashMap + lists", () -> {
+                Map<Integer, Product> byId = new HashMap<>();
+                List<Product> all = new ArrayList<>();
+                Map<String, List<Product>> byCategory = new TreeMap<>();
+                for (int i = 0; i < n; i++) {
+                    Product p = new Product(1001 + i, name(i), new String(CATEGORIES[i % CATEGORIES.length]), price(i), i % 100);
+                    byId.put(p.getId(), p);
+                    all.add(p);
+                    byCategory.computeIfAbsent(p.getCategory(), k -> new ArrayList<>()).add(p);
+                }
+                return new Object[] {byId, all, byCategory};
+            });
+            report(n, "versioned catalog", () -> {
+                List<Product> all = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) all.add(new Product(1001 + i, name(i), new String(CATEGORIES[i % CATEGORIES.length]), price(i), i % 100));
+                return Catalog.EMPTY.plusAll(all);
+            });
+            report(n, "columnar (heap)", () -> columnar(n, false));
+            report(n, "columnar (off-heap)", () -> columnar(n, true));
+        }
+    }
+
+    private static ColumnarProductStore columnar(int n, boolean offHeap) {
+        ColumnarProductStore store = new ColumnarProductStore(n, offHeap);
+        for (int i = 0; i < n; i++) store.add(1001 + i, name(i), CATEGORIES[i % CATEGORIES.length], price(i), i % 100);
+        int row = store.row(1001 + n / 2);
+        if (row < 0 || !store.name(row).equals(name(n / 2))) throw new IllegalStateException("lookup failed");
+        return store;
+    }
+
+    private static String name(int i) { return "Product " + i; }
+
+    private static long price(int i) { return (100 + i % 50000) * 100L + 50; } // paise
+
+    private static void report(int n, String layout, Supplier<Object> build) {
+        long before = usedHeap(), directBefore = usedDirect();
+        Object kept = build.get();
+        long heap = usedHeap() - before, direct = usedDirect() - directBefore;
+        System.out.printf("%-12d %-22s %10.1f %10.1f %14.1f%n", n, layout, heap / 1048576.0, direct / 1048576.0, (heap + direct) / (double) n);
+        Reference.reachabilityFence(kept); // keep the structure reachable until measured
+    }
+
+    private static long usedDirect() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
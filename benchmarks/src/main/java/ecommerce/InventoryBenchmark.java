@@ -0,0 +1,87 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserve-then-release of a whole cart through InventoryEngine at 1, 2, 4 and 8 threads.
+ * With {@code contention=shared} every thread's cart holds the same products, so the stock
+ * CASes collide; with {@code contention=disjoint} each thread has products of its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryBenchmark {
+    private static final int STOCK = 1_000_000_000; // never runs out, so every reservation succeeds
+
+    @Param({"shared", "disjoint"})
+    String contention;
+
+    @Param({"4"})
+    int cartLines;
+
+    private final AtomicInteger nextThread = new AtomicInteger();
+    private List<CartItem> sharedCart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sharedCart = newCart(0, cartLines);
+    }
+
+    static List<CartItem> newCart(int firstId, int lines) {
+        List<CartItem> cart = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            cart.add(new CartItem(new Product(firstId + i, "Product " + (firstId + i), "Bench", 10_000, STOCK), 1));
+        }
+        return cart;
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCart {
+        List<CartItem> cart;
+
+        @Setup(Level.Trial)
+        public void setUp(InventoryBenchmark bench) {
+            cart = bench.contention.equals("shared")
+                    ? bench.sharedCart
+                    : newCart(bench.nextThread.getAndIncrement() * bench.cartLines, bench.cartLines);
+        }
+    }
+
+    private static boolean reserveRelease(ThreadCart state) {
+        boolean reserved = InventoryEngine.reserveAll(state.cart).isEmpty();
+        if (reserved) InventoryEngine.releaseAll(state.cart);
+        return reserved;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean threads1(ThreadCart state) {
+        return reserveRelease(state);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public boolean threads2(ThreadCart state) {
+        return reserveRelease(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean threads4(ThreadCart state) {
+        return reserveRelease(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean threads8(ThreadCart state) {
+        return reserveRelease(state);
+    }
+}
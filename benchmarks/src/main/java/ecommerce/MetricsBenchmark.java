@@ -0,0 +1,32 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording into a latency histogram from many threads, and of a timed operation
+ * around an empty body. Compare with {@code -t 1} to see the cost of contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class MetricsBenchmark {
+    private final Histogram histogram = new Histogram();
+    private final Operation operation = new Operation("bench");
+
+    @Benchmark
+    public void record() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000, 10_000_000));
+    }
+
+    @Benchmark
+    public void timedOperation() {
+        operation.stop(operation.start());
+    }
+}
@@ -0,0 +1,57 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders per second and checkout latency through the group-commit pipeline, by the most orders
+ * made durable per sync ({@code maxBatch}) and how long the committer waits to fill a batch
+ * ({@code lingerMicros}). Each thread is one shopper checking out one-line carts; more threads
+ * ({@code -t}) means more orders waiting to share a sync.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class OrderPipelineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shop {
+        @Param({"1", "16", "256"})
+        int maxBatch;
+
+        @Param({"0", "500"})
+        int lingerMicros;
+
+        ECommerceApp app;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            // read when the app's services are created
+            System.setProperty("ecommerce.commit.batch", String.valueOf(maxBatch));
+            System.setProperty("ecommerce.commit.lingerMicros", String.valueOf(lingerMicros));
+            app = BenchCatalog.create(10_000);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Shopper {
+        SessionStore.Session session;
+
+        @Setup(Level.Trial)
+        public void login(Shop shop) {
+            session = shop.app.service.login("user1", "pass1");
+        }
+    }
+
+    @Benchmark
+    public Order checkout(Shop shop, Shopper shopper) {
+        shop.app.service.addToCart(shopper.session, BenchCatalog.FIRST_GENERATED_ID + ThreadLocalRandom.current().nextInt(10_000), 1);
+        return shop.app.service.checkout(shopper.session);
+    }
+}
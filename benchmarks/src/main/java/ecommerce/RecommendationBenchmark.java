@@ -0,0 +1,74 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frequently-bought-together lookups for one product and for a cart, recording a checkout,
+ * and rebuilding the co-purchase index from order history as at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecommendationBenchmark {
+    @Param({"100000"})
+    public int orders;
+
+    @Param({"10000"})
+    public int products;
+
+    private List<Order> history;
+    private CoPurchaseIndex index;
+    private int[] cart;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        history = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) history.add(order(rnd, i));
+        index = new CoPurchaseIndex();
+        index.rebuild(history);
+        cart = new int[]{1, 2, 3, 4, 5};
+    }
+
+    private Order order(SplittableRandom rnd, long id) {
+        List<OrderLine> lines = new ArrayList<>();
+        int base = 1 + rnd.nextInt(products);
+        for (int k = 1 + rnd.nextInt(4); k > 0; k--) {
+            lines.add(new OrderLine(1 + (base + rnd.nextInt(50)) % products, 1, 100));
+        }
+        return new Order(id, "bench", id, lines);
+    }
+
+    @Benchmark
+    public int[] boughtWith() {
+        next = next % products + 1;
+        return index.boughtWith(next);
+    }
+
+    @Benchmark
+    public int[] cartRecommendations() {
+        return index.boughtWithAll(cart, 5);
+    }
+
+    @Benchmark
+    public void recordCheckout() {
+        index.record(history.get(next++ % orders));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CoPurchaseIndex rebuild() {
+        CoPurchaseIndex fresh = new CoPurchaseIndex();
+        fresh.rebuild(history);
+        return fresh;
+    }
+}
@@ -0,0 +1,45 @@
+package ecommerce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session lookups and login/logout churn from many threads against a store holding
+ * {@code liveSessions} shoppers. Run with more or fewer threads via {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SessionBenchmark {
+    @Param({"10000", "100000"})
+    int liveSessions;
+
+    @Param({"1", "64"})
+    int shards;
+
+    private SessionStore store;
+    private String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new SessionStore(shards, liveSessions * 2, 30, TimeUnit.MINUTES);
+        tokens = new String[liveSessions];
+        for (int i = 0; i < liveSessions; i++) tokens[i] = store.create("user" + i).getToken();
+    }
+
+    @Benchmark
+    public SessionStore.Session lookup() {
+        return store.get(tokens[ThreadLocalRandom.current().nextInt(tokens.length)]);
+    }
+
+    @Benchmark
+    public void loginLogout() {
+        store.remove(store.create("shopper").getToken());
+    }
+}